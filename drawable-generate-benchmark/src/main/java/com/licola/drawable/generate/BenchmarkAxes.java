@@ -0,0 +1,97 @@
+package com.licola.drawable.generate;
+
+import com.licola.drawable.generate.DrawableGenerate.Builder;
+import com.licola.drawable.generate.DrawableGenerate.DrawableNode;
+import com.licola.drawable.generate.DrawableGenerate.OnProcessResources;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基准测试共用的轴配置：axisCount个轴，每个轴valuesPerAxis个取值，轮流使用内置的各种add方法
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+final class BenchmarkAxes {
+
+  private BenchmarkAxes() {
+  }
+
+  static String[] values(String prefix, int valuesPerAxis) {
+    String[] values = new String[valuesPerAxis];
+    for (int i = 0; i < valuesPerAxis; i++) {
+      values[i] = prefix + i;
+    }
+    return values;
+  }
+
+  /**
+   * 按轴数量依次添加corners、solid、size、stroke等内置节点
+   */
+  static Builder newBuilder(File outDir, int axisCount, int valuesPerAxis) {
+    Builder builder = DrawableGenerate.newBuilder(outDir, true, "rectangle");
+    for (int axis = 0; axis < axisCount; axis++) {
+      String[] dimens = values("x" + axis + "_", valuesPerAxis);
+      switch (axis % 4) {
+        case 0:
+          builder.addCorners(dimens);
+          break;
+        case 1:
+          builder.addSolid(values("color" + axis + "_", valuesPerAxis));
+          break;
+        case 2:
+          builder.addSize(dimens);
+          break;
+        default:
+          builder.addStroke(dimens, new String[]{"gray_deep"});
+          break;
+      }
+    }
+    return builder;
+  }
+
+  /**
+   * 直接构造与Builder一致的各层片段（根节点、各轴和结束节点），用于只测量叶子渲染
+   */
+  static List<List<DrawableNode>> newLevels(int axisCount, int valuesPerAxis) {
+    List<List<DrawableNode>> levels = new ArrayList<>();
+    levels.add(Collections.singletonList(new DrawableNode("rectangle",
+        ("<shape xmlns:android=\"http://schemas.android.com/apk/res/android\"\n"
+            + "  android:shape=\"rectangle\">").getBytes(FragmentTemplate.UTF_8))));
+    for (int axis = 0; axis < axisCount; axis++) {
+      List<DrawableNode> level = new ArrayList<>(valuesPerAxis);
+      for (String value : values("solid" + axis + "_", valuesPerAxis)) {
+        level.add(new DrawableNode(value,
+            ("\t<solid android:color=\"@color/" + value + "\" />").getBytes(FragmentTemplate.UTF_8)));
+      }
+      levels.add(level);
+    }
+    levels.add(Collections.singletonList(
+        new DrawableNode(null, "</shape>".getBytes(FragmentTemplate.UTF_8))));
+    return levels;
+  }
+
+  /**
+   * 自定义节点，测量addNode扇出时不经过内置模板
+   */
+  static OnProcessResources[] customNodes(int axis, int valuesPerAxis) {
+    OnProcessResources[] resources = new OnProcessResources[valuesPerAxis];
+    for (int i = 0; i < valuesPerAxis; i++) {
+      final String name = "n" + axis + "_" + i;
+      resources[i] = new OnProcessResources() {
+        @Override
+        public String onProcessName() {
+          return name;
+        }
+
+        @Override
+        public String onProcessContent() {
+          return "\t<size android:width=\"@dimen/" + name + "\" />";
+        }
+      };
+    }
+    return resources;
+  }
+}
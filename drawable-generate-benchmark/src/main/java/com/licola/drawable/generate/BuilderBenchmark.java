@@ -0,0 +1,52 @@
+package com.licola.drawable.generate;
+
+import com.licola.drawable.generate.DrawableGenerate.Builder;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Builder.addNode扇出：构造各层片段的开销
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuilderBenchmark {
+
+  @Param({"2", "4", "6"})
+  public int axisCount;
+
+  @Param({"4", "10", "30"})
+  public int valuesPerAxis;
+
+  private final File outDir = new File("build");
+
+  @Benchmark
+  public Builder builtInNodes() {
+    return BenchmarkAxes.newBuilder(outDir, axisCount, valuesPerAxis);
+  }
+
+  @Benchmark
+  public Builder customNodes() {
+    Builder builder = DrawableGenerate.newBuilder(outDir, true, "rectangle");
+    for (int axis = 0; axis < axisCount; axis++) {
+      builder.addNode(BenchmarkAxes.customNodes(axis, valuesPerAxis));
+    }
+    return builder;
+  }
+}
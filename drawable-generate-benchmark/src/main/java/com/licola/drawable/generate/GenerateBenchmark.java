@@ -0,0 +1,92 @@
+package com.licola.drawable.generate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * generate()整体I/O：按输出目标分别测量
+ * <ul>
+ * <li>filesystem：java.io.tmpdir下的临时目录</li>
+ * <li>tmpfs：/dev/shm下的临时目录，不存在时回退到filesystem</li>
+ * <li>memory：不压缩写入内存中的压缩包</li>
+ * </ul>
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerateBenchmark {
+
+  @Param({"2", "3"})
+  public int axisCount;
+
+  @Param({"4", "10"})
+  public int valuesPerAxis;
+
+  @Param({"filesystem", "tmpfs", "memory"})
+  public String sink;
+
+  @Param({"false", "true"})
+  public boolean gatheringWrite;
+
+  private File outDir;
+
+  @Setup
+  public void setUp() throws IOException {
+    File parent = "tmpfs".equals(sink) && new File("/dev/shm").isDirectory()
+        ? new File("/dev/shm") : new File(System.getProperty("java.io.tmpdir"));
+    outDir = File.createTempFile("drawable-benchmark", "", parent);
+    if (!outDir.delete() || !outDir.mkdirs()) {
+      throw new IOException("无法创建输出目录:" + outDir);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    File[] files = outDir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    outDir.delete();
+  }
+
+  @Benchmark
+  public GenerationResult generate() throws IOException {
+    DrawableGenerate.Builder builder = BenchmarkAxes
+        .newBuilder(outDir, axisCount, valuesPerAxis)
+        .gatheringWrite(gatheringWrite);
+    if (!"memory".equals(sink)) {
+      return builder.build();
+    }
+
+    DrawableArchive archive = new DrawableArchive(new ByteArrayOutputStream(),
+        Deflater.NO_COMPRESSION);
+    try {
+      return builder.archive(archive).build();
+    } finally {
+      archive.close();
+    }
+  }
+}
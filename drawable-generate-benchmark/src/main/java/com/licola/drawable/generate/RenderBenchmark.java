@@ -0,0 +1,65 @@
+package com.licola.drawable.generate;
+
+import com.licola.drawable.generate.DrawableGenerate.DrawableNode;
+import com.licola.drawable.generate.DrawableGenerate.LeafCursor;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 叶子渲染：遍历全部叶子，拼接文件名并渲染内容，不做I/O
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+  @Param({"2", "3", "4"})
+  public int axisCount;
+
+  @Param({"4", "10", "30"})
+  public int valuesPerAxis;
+
+  private List<List<DrawableNode>> levels;
+
+  @Setup
+  public void setUp() {
+    levels = BenchmarkAxes.newLevels(axisCount, valuesPerAxis);
+  }
+
+  @Benchmark
+  public void renderLeafs(Blackhole blackhole) {
+    LeafCursor cursor = new LeafCursor(levels);
+    while (cursor.next()) {
+      blackhole.consume(cursor.name());
+      LeafBuffer buffer = LeafBuffer.obtain();
+      cursor.render(buffer);
+      blackhole.consume(buffer.size());
+    }
+  }
+
+  @Benchmark
+  public void hashLeafs(Blackhole blackhole) {
+    LeafCursor cursor = new LeafCursor(levels);
+    while (cursor.next()) {
+      blackhole.consume(cursor.hash());
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.licola.drawable.generate
+
+import org.gradle.api.provider.Property
+import org.gradle.api.services.BuildServiceParameters
+
+/**
+ * DrawableCacheService的参数
+ */
+interface DrawableCacheParameters extends BuildServiceParameters {
+
+    /**
+     * 每类缓存的最大条目数量
+     */
+    Property<Integer> getMaxEntries()
+}
@@ -0,0 +1,36 @@
+package com.licola.drawable.generate
+
+import org.gradle.api.services.BuildService
+
+/**
+ * 守护进程内共享的生成缓存服务：各模块的drawable任务和生成工作通过它复用values资源索引、片段缓冲和生成清单
+ *
+ * 服务实例只存在于一次构建，缓存由插件类加载器中的静态字段持有：插件classpath不变时gradle复用同一个类加载器，
+ * 守护进程中的下一次构建拿到同一份缓存；插件变化后旧的类加载器连同缓存一起释放
+ * 缓存条目按最近最少使用淘汰，values资源和生成清单按文件的修改时间和大小判断是否失效，不需要在构建结束时清空
+ */
+abstract class DrawableCacheService implements BuildService<DrawableCacheParameters> {
+
+    static final String NAME = "drawableGenerateCache"
+
+    static final int DEFAULT_MAX_ENTRIES = 64
+
+    private static GenerationCache daemonCache
+
+    /**
+     * @return 守护进程内共享的缓存
+     */
+    GenerationCache getCache() {
+        return daemonCache(parameters.maxEntries.getOrElse(DEFAULT_MAX_ENTRIES))
+    }
+
+    /**
+     * @return 守护进程内共享的缓存，首次使用或条目上限改变时重新创建
+     */
+    static synchronized GenerationCache daemonCache(int maxEntries) {
+        if (daemonCache == null || daemonCache.maxEntries() != maxEntries) {
+            daemonCache = new GenerationCache(maxEntries)
+        }
+        return daemonCache
+    }
+}
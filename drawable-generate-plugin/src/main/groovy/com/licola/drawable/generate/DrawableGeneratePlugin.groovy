@@ -2,29 +2,49 @@ package com.licola.drawable.generate
 
 import org.gradle.api.Plugin
 import org.gradle.api.Project
+import org.gradle.api.file.Directory
+import org.gradle.api.provider.Provider
+import org.gradle.api.tasks.TaskProvider
 
+/**
+ * 配置阶段只注册任务并连接延迟属性，不读取配置，兼容配置缓存
+ */
 class DrawableGeneratePlugin implements Plugin<Project>{
 
     @Override
     void apply(Project project) {
-        project.extensions.create("generateExt",GenerateExt)
-
-        //after 在gradle构建完成后自动执行
-        project.afterEvaluate {
-            println("Hello plugin drawable!")
-            println("project.generateExt:"+project.generateExt.srcDir)
-
-//            def file = new File("namefile.txt")
-//            if (file.exists()) {
-//                println("has exists:" + file.getAbsolutePath())
-//            } else {
-//                file.write("date")
-//            }
+        GenerateExt generateExt = project.extensions.create("generateExt", GenerateExt)
+
+        //全部模块共享同一个缓存服务
+        Provider<DrawableCacheService> cacheService = project.gradle.sharedServices
+                .registerIfAbsent(DrawableCacheService.NAME, DrawableCacheService) {
+            it.parameters.maxEntries.set(DrawableCacheService.DEFAULT_MAX_ENTRIES)
+        }
+
+        Provider<Directory> resDir = project.layout.buildDirectory.dir("generated/res/drawable-generate")
+        generateExt.srcDir.convention(project.layout.projectDirectory.dir("src/main/res"))
+        generateExt.outDir.convention(resDir.map { it.dir("drawable") })
+
+        //注册task，只在需要执行时创建，输入输出不变时gradle会跳过
+        TaskProvider<GenerateDrawableTask> task = project.tasks.register("drawable", GenerateDrawableTask) {
+            it.group = "build"
+            it.description = "根据generateExt配置生成drawable资源"
+            it.shapes.set(generateExt.shapes)
+            it.valuesFiles.from(generateExt.srcDir.map { it.dir("values").asFileTree.matching { include "*.xml" } })
+            it.outDir.set(generateExt.outDir)
+            it.cacheService.set(cacheService)
+            it.usesService(cacheService)
         }
-        //这里是添加一个task 需要手动调起
-        project.task("drawable") << {
-            println("new task")
+
+        //生成目录作为android的资源目录
+        ['com.android.application', 'com.android.library'].each { id ->
+            project.plugins.withId(id) {
+                project.android.sourceSets.main.res.srcDir(resDir)
+            }
+        }
+
+        project.tasks.matching { it.name == "preBuild" }.configureEach {
+            it.dependsOn(task)
         }
     }
 }
-
@@ -0,0 +1,100 @@
+package com.licola.drawable.generate
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.GradleException
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.provider.Provider
+import org.gradle.api.tasks.CacheableTask
+import org.gradle.api.tasks.InputFiles
+import org.gradle.api.tasks.Internal
+import org.gradle.api.tasks.Nested
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.api.tasks.TaskAction
+import org.gradle.workers.WorkQueue
+import org.gradle.workers.WorkerExecutor
+
+import javax.inject.Inject
+
+/**
+ * 根据generateExt配置生成drawable资源
+ * 输入为shape配置和values下引用的color/dimens资源，输出为drawable目录，输入不变时由gradle跳过或从构建缓存恢复
+ */
+@CacheableTask
+abstract class GenerateDrawableTask extends DefaultTask {
+
+    @Nested
+    abstract ListProperty<ShapeSpec> getShapes()
+
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    abstract ConfigurableFileCollection getValuesFiles()
+
+    @OutputDirectory
+    abstract DirectoryProperty getOutDir()
+
+    /**
+     * 共享缓存，不影响输出
+     */
+    @Internal
+    abstract Property<DrawableCacheService> getCacheService()
+
+    @Inject
+    abstract WorkerExecutor getWorkerExecutor()
+
+    /**
+     * 先用values资源索引校验全部shape的@color/@dimen引用，有缺失时不写入任何文件，一次报告全部缺失
+     * 校验通过后每个shape作为一个工作提交到gradle的工作线程池并发生成，全部完成后清理不再配置的shape遗留的文件
+     * 使用noIsolation：同一输出目录的生成清单依赖类内的同步锁，各工作需要共享同一个类加载器
+     */
+    @TaskAction
+    void generate() {
+        File targetDir = outDir.get().asFile
+        targetDir.mkdirs()
+        List<ShapeSpec> shapes = this.shapes.get()
+        DrawableCacheService service = cacheService.get()
+        List<DrawableGenerate.Builder> builders = shapes.collect { it.newBuilder(targetDir).cleanStale(true) }
+        List<String> duplicates = DrawableGenerate.duplicateManifestKeys(builders)
+        if (!duplicates.empty) {
+            throw new GradleException("生成清单key重复，请在shape中用manifestKey区分:${duplicates}")
+        }
+        if (!valuesFiles.empty) {
+            ResourceIndex index = service.cache.resourceIndex(valuesFiles.files as List<File>,
+                    new File(temporaryDir, 'resource-index'))
+            List<String> failures = []
+            for (int i = 0; i < shapes.size(); i++) {
+                List<String> missing = DrawableGenerate.create(builders[i]).missingReferences(index)
+                if (!missing.empty) {
+                    failures << "${shapes[i].shapeAlias} 引用了${missing.size()}个不存在的资源:${missing}"
+                }
+            }
+            if (!failures.empty) {
+                throw new GradleException(failures.join('\n'))
+            }
+        }
+
+        //传递服务的provider而不是服务实例，工作中拿到的是同一个服务和缓存
+        Provider<DrawableCacheService> serviceProvider = cacheService
+        WorkQueue queue = workerExecutor.noIsolation()
+        for (ShapeSpec spec : shapes) {
+            queue.submit(GenerateShapeAction) { GenerateShapeParameters parameters ->
+                parameters.shape.set(spec.shape)
+                parameters.shapeAlias.set(spec.shapeAlias)
+                parameters.manifestKey.set(spec.manifestKey)
+                parameters.axisTypes.set(spec.axes*.type)
+                parameters.axisValues.set(spec.axes*.values)
+                parameters.axisColors.set(spec.axes*.colors)
+                parameters.outDir.set(targetDir)
+                parameters.cacheService.set(serviceProvider)
+            }
+        }
+
+        //输出目录只由本任务生成：全部shape完成后，清单中已移除的shape遗留的文件一起删除
+        queue.await()
+        DrawableGenerate.cleanStaleOwners(builders, service.cache)
+    }
+}
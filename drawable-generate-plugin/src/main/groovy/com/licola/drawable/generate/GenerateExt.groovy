@@ -1,5 +1,45 @@
 package com.licola.drawable.generate
 
-class GenerateExt {
-    String srcDir
-}
\ No newline at end of file
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.provider.ListProperty
+
+/**
+ * 生成配置，全部使用延迟属性，只在drawable任务执行时读取
+ * <pre>
+ * generateExt {
+ *     srcDir.set(file("src/main/res"))
+ * }
+ * </pre>
+ */
+abstract class GenerateExt {
+
+    /**
+     * 资源目录，values下的color/dimens等资源作为生成输入，默认src/main/res
+     */
+    abstract DirectoryProperty getSrcDir()
+
+    /**
+     * 生成drawable的输出目录，默认build/generated/res/drawable-generate/drawable并自动加入android资源目录
+     * 自定义时需自行加入资源目录
+     */
+    abstract DirectoryProperty getOutDir()
+
+    abstract ListProperty<ShapeSpec> getShapes()
+
+    /**
+     * 声明一种shape的生成配置
+     * <pre>
+     * shape("oval", "circle") {
+     *     solid "black_A87", "black_A54"
+     * }
+     * </pre>
+     */
+    ShapeSpec shape(String shape, String shapeAlias = shape, Closure configure) {
+        def spec = new ShapeSpec(shape, shapeAlias)
+        configure.delegate = spec
+        configure.resolveStrategy = Closure.DELEGATE_FIRST
+        configure.call()
+        shapes.add(spec)
+        return spec
+    }
+}
@@ -0,0 +1,37 @@
+package com.licola.drawable.generate
+
+import org.gradle.api.GradleException
+import org.gradle.api.logging.Logger
+import org.gradle.api.logging.Logging
+import org.gradle.workers.WorkAction
+
+/**
+ * 一种shape的生成工作，由GenerateDrawableTask通过Worker API提交，多个shape在gradle的工作线程中并发生成
+ */
+abstract class GenerateShapeAction implements WorkAction<GenerateShapeParameters> {
+
+    private static final Logger LOGGER = Logging.getLogger(GenerateShapeAction)
+
+    @Override
+    void execute() {
+        ShapeSpec spec = new ShapeSpec(parameters.shape.get(), parameters.shapeAlias.get())
+        spec.manifestKey = parameters.manifestKey.getOrNull()
+        List<String> types = parameters.axisTypes.get()
+        List<List<String>> values = parameters.axisValues.get()
+        List<List<String>> colors = parameters.axisColors.get()
+        for (int i = 0; i < types.size(); i++) {
+            spec.axes.add(new ShapeSpec.AxisSpec(types[i], values[i] as String[], colors[i] as String[]))
+        }
+
+        GenerationResult result = spec.newBuilder(parameters.outDir.get().asFile)
+                .skipUnchanged(true)
+                .cleanStale(true)
+                .gatheringWrite(true)
+                .cache(parameters.cacheService.get().cache)
+                .build()
+        if (!result.success) {
+            throw new GradleException(result.message)
+        }
+        LOGGER.info(result.message)
+    }
+}
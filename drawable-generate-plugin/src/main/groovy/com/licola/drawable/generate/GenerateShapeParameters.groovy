@@ -0,0 +1,29 @@
+package com.licola.drawable.generate
+
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+import org.gradle.workers.WorkParameters
+
+/**
+ * GenerateShapeAction的参数：shape配置拆分为字符串和列表传给工作线程，输出目录和共享缓存服务
+ * axisTypes、axisValues、axisColors按下标一一对应ShapeSpec的axes
+ */
+interface GenerateShapeParameters extends WorkParameters {
+
+    Property<String> getShape()
+
+    Property<String> getShapeAlias()
+
+    Property<String> getManifestKey()
+
+    ListProperty<String> getAxisTypes()
+
+    ListProperty<List<String>> getAxisValues()
+
+    ListProperty<List<String>> getAxisColors()
+
+    DirectoryProperty getOutDir()
+
+    Property<DrawableCacheService> getCacheService()
+}
@@ -0,0 +1,105 @@
+package com.licola.drawable.generate
+
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.Nested
+import org.gradle.api.tasks.Optional
+
+/**
+ * 一种shape的生成配置，对应一个DrawableGenerate.Builder
+ */
+class ShapeSpec implements Serializable {
+
+    @Input
+    String shape
+
+    @Input
+    String shapeAlias
+
+    /**
+     * 生成清单key，为null时使用Builder的默认key（shape、别名和各层类型）
+     */
+    @Input
+    @Optional
+    String manifestKey
+
+    @Nested
+    List<AxisSpec> axes = []
+
+    ShapeSpec(String shape, String shapeAlias) {
+        this.shape = shape
+        this.shapeAlias = shapeAlias
+    }
+
+    /**
+     * 同一输出目录下shape、别名和各层类型都相同的配置需要指定不同的key
+     */
+    void manifestKey(String manifestKey) {
+        this.manifestKey = manifestKey
+    }
+
+    void corners(String... dimenIds) {
+        axes.add(new AxisSpec("corners", dimenIds))
+    }
+
+    void cornersTop(String... dimenIds) {
+        axes.add(new AxisSpec("cornersTop", dimenIds))
+    }
+
+    void cornersBottom(String... dimenIds) {
+        axes.add(new AxisSpec("cornersBottom", dimenIds))
+    }
+
+    void cornersLeft(String... dimenIds) {
+        axes.add(new AxisSpec("cornersLeft", dimenIds))
+    }
+
+    void cornersRight(String... dimenIds) {
+        axes.add(new AxisSpec("cornersRight", dimenIds))
+    }
+
+    void solid(String... colorIds) {
+        axes.add(new AxisSpec("solid", colorIds))
+    }
+
+    void size(String... dimenIds) {
+        axes.add(new AxisSpec("size", dimenIds))
+    }
+
+    void stroke(List<String> dimenIds, List<String> colorIds) {
+        axes.add(new AxisSpec("stroke", dimenIds as String[], colorIds as String[]))
+    }
+
+    /**
+     * 按配置顺序构造Builder
+     */
+    DrawableGenerate.Builder newBuilder(File outDir) {
+        def builder = DrawableGenerate.newBuilder(outDir, true, shape, shapeAlias)
+                .manifestKey(manifestKey)
+        for (AxisSpec axis : axes) {
+            axis.applyTo(builder)
+        }
+        return builder
+    }
+
+    static class AxisSpec implements Serializable {
+
+        @Input
+        String type
+
+        @Input
+        List<String> values
+
+        @Input
+        List<String> colors = []
+
+        AxisSpec(String type, String[] values, String[] colors = new String[0]) {
+            this.type = type
+            this.values = values.toList()
+            this.colors = colors.toList()
+        }
+
+        void applyTo(DrawableGenerate.Builder builder) {
+            DrawableSpec.Axis.apply(builder, type, values as String[], colors as String[])
+        }
+    }
+}
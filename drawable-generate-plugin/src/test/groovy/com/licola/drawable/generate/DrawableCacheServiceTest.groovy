@@ -0,0 +1,63 @@
+package com.licola.drawable.generate
+
+import org.gradle.api.Project
+import org.gradle.api.provider.Provider
+import org.gradle.testfixtures.ProjectBuilder
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+import static org.junit.Assert.assertNotSame
+import static org.junit.Assert.assertSame
+
+/**
+ * 缓存服务在同一守护进程的多次构建间共享缓存：每个ProjectBuilder工程是一次独立的构建，得到新的服务实例
+ */
+class DrawableCacheServiceTest {
+
+    private File dir
+    private File valuesFile
+
+    @Before
+    void setUp() {
+        dir = File.createTempDir("drawable-cache", "")
+        valuesFile = new File(dir, "dimens.xml")
+        valuesFile.text = '<resources>\n  <dimen name="x1dp">1dp</dimen>\n</resources>\n'
+    }
+
+    @After
+    void tearDown() {
+        dir.deleteDir()
+    }
+
+    private static DrawableCacheService newBuild(File projectDir) {
+        Project project = ProjectBuilder.builder().withProjectDir(projectDir).build()
+        project.apply(plugin: DrawableGeneratePlugin)
+        Provider<DrawableCacheService> service = project.gradle.sharedServices
+                .registerIfAbsent(DrawableCacheService.NAME, DrawableCacheService) {}
+        return service.get()
+    }
+
+    private ResourceIndex resourceIndex(DrawableCacheService service) {
+        return service.cache.resourceIndex([valuesFile], new File(dir, "resource-index"))
+    }
+
+    @Test
+    void secondBuild_hitsCache() {
+        DrawableCacheService first = newBuild(new File(dir, "first"))
+        ResourceIndex index = resourceIndex(first)
+
+        DrawableCacheService second = newBuild(new File(dir, "second"))
+        assertNotSame(first, second)
+        assertSame(first.cache, second.cache)
+        assertSame(index, resourceIndex(second))
+    }
+
+    @Test
+    void changedValues_reloadIndex() {
+        ResourceIndex index = resourceIndex(newBuild(new File(dir, "first")))
+
+        valuesFile.text = '<resources>\n  <dimen name="x10dp">10dp</dimen>\n</resources>\n'
+        assertNotSame(index, resourceIndex(newBuild(new File(dir, "second"))))
+    }
+}
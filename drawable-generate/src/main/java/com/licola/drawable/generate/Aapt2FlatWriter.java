@@ -0,0 +1,305 @@
+package com.licola.drawable.generate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * 直接输出aapt2编译后的.flat文件，链接时不再需要单独执行aapt2 compile
+ *
+ * 文件为aapt2容器格式，包含一个资源文件条目：CompiledFile头部（资源名、默认配置、PROTO_XML类型、源文件路径）
+ * 和protobuf格式的XmlNode，字段编号与aapt2的Resources.proto、ResourcesInternal.proto一致
+ * 与aapt2 compile相同，只包含空白的文本节点不输出；不记录源码行列号，只影响链接错误信息中的位置
+ *
+ * 每个线程持有一个实例，复用xml解析器
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+final class Aapt2FlatWriter {
+
+  static final String FILE_SUFFIX = ".flat";
+
+  /**
+   * 容器魔数"AAPT"，小端序
+   */
+  private static final int CONTAINER_MAGIC = 0x54504141;
+  private static final int CONTAINER_VERSION = 1;
+  private static final int ENTRY_TYPE_RES_FILE = 0x01;
+  /**
+   * 资源文件条目中头部长度(uint32)和数据长度(uint64)占用的字节数
+   */
+  private static final int RES_FILE_ENTRY_HEADER_SIZE = 12;
+
+  /**
+   * FileReference.Type.PROTO_XML
+   */
+  private static final int FILE_TYPE_PROTO_XML = 3;
+
+  private final File flatDir;
+  private final File sourceDir;
+  private final String type;
+  private final SAXParser parser;
+  private final XmlNodeHandler handler = new XmlNodeHandler();
+
+  /**
+   * @param flatDir .flat文件输出目录
+   * @param sourceDir 对应的xml资源目录，目录名即资源类型，作为源文件路径记录
+   */
+  Aapt2FlatWriter(File flatDir, File sourceDir) throws IOException {
+    this.flatDir = flatDir;
+    this.sourceDir = sourceDir;
+    this.type = resourceType(sourceDir);
+    SAXParserFactory factory = SAXParserFactory.newInstance();
+    factory.setNamespaceAware(true);
+    try {
+      this.parser = factory.newSAXParser();
+    } catch (ParserConfigurationException | SAXException e) {
+      throw new IOException("无法创建xml解析器", e);
+    }
+  }
+
+  /**
+   * @return 资源目录名，带限定符时需要编码Configuration，暂不支持
+   */
+  static String resourceType(File sourceDir) throws IOException {
+    String type = sourceDir.getName();
+    if (type.isEmpty() || type.indexOf('-') >= 0) {
+      throw new IOException("编译输出只支持不带限定符的资源目录:" + sourceDir);
+    }
+    return type;
+  }
+
+  /**
+   * @return aapt2 compile的输出文件名，如drawable_rectangle_solid_orange.xml.flat
+   */
+  static String fileName(String type, String name) {
+    return type + '_' + name + DrawableGenerate.FILE_SUFFIX + FILE_SUFFIX;
+  }
+
+  File makeFile(String name) {
+    return new File(flatDir, fileName(type, name));
+  }
+
+  /**
+   * @param name 资源名称，不含扩展名
+   * @param buffer 渲染好的完整xml
+   * @return .flat文件内容
+   */
+  byte[] compile(String name, LeafBuffer buffer) throws IOException {
+    byte[] xmlNode;
+    try {
+      handler.reset();
+      parser.reset();
+      parser.parse(new ByteArrayInputStream(buffer.array(), 0, buffer.size()), handler);
+      xmlNode = handler.root;
+    } catch (SAXException e) {
+      throw new IOException("无法解析生成的xml:" + name, e);
+    }
+
+    ProtoOutput compiledFile = new ProtoOutput();
+    compiledFile.writeString(1, type + '/' + name);
+    compiledFile.writeMessage(2, new byte[0]);
+    compiledFile.writeVarint(3, FILE_TYPE_PROTO_XML);
+    compiledFile.writeString(4, new File(sourceDir, name + DrawableGenerate.FILE_SUFFIX).getPath());
+    byte[] header = compiledFile.toByteArray();
+
+    int headerPadding = padding(header.length);
+    int dataPadding = padding(xmlNode.length);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(
+        40 + header.length + headerPadding + xmlNode.length + dataPadding);
+    writeInt(out, CONTAINER_MAGIC);
+    writeInt(out, CONTAINER_VERSION);
+    writeInt(out, 1);
+    writeInt(out, ENTRY_TYPE_RES_FILE);
+    writeLong(out, RES_FILE_ENTRY_HEADER_SIZE + header.length + headerPadding
+        + xmlNode.length + dataPadding);
+    writeInt(out, header.length);
+    writeLong(out, xmlNode.length);
+    out.write(header, 0, header.length);
+    out.write(new byte[headerPadding], 0, headerPadding);
+    out.write(xmlNode, 0, xmlNode.length);
+    out.write(new byte[dataPadding], 0, dataPadding);
+    return out.toByteArray();
+  }
+
+  /**
+   * @return 补齐到4字节对齐需要的字节数
+   */
+  private static int padding(int size) {
+    return (4 - size % 4) % 4;
+  }
+
+  private static void writeInt(ByteArrayOutputStream out, int value) {
+    out.write(value);
+    out.write(value >>> 8);
+    out.write(value >>> 16);
+    out.write(value >>> 24);
+  }
+
+  private static void writeLong(ByteArrayOutputStream out, long value) {
+    writeInt(out, (int) value);
+    writeInt(out, (int) (value >>> 32));
+  }
+
+  /**
+   * 把xml转为pb.XmlNode：元素的命名空间声明、属性和子节点分别编码，结束时按字段编号顺序合并
+   */
+  private static final class XmlNodeHandler extends DefaultHandler {
+
+    private final Deque<Element> elements = new ArrayDeque<>();
+    private final List<byte[]> pendingNamespaces = new ArrayList<>();
+    private final StringBuilder text = new StringBuilder();
+    private byte[] root;
+
+    void reset() {
+      elements.clear();
+      pendingNamespaces.clear();
+      text.setLength(0);
+      root = null;
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri) {
+      //XmlNamespace: prefix = 1, uri = 2
+      ProtoOutput namespace = new ProtoOutput();
+      namespace.writeString(1, prefix);
+      namespace.writeString(2, uri);
+      pendingNamespaces.add(namespace.toByteArray());
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+      flushText();
+      Element element = new Element(uri, localName);
+      element.namespaces.addAll(pendingNamespaces);
+      pendingNamespaces.clear();
+      for (int i = 0; i < attributes.getLength(); i++) {
+        //XmlAttribute: namespace_uri = 1, name = 2, value = 3
+        ProtoOutput attribute = new ProtoOutput();
+        attribute.writeString(1, attributes.getURI(i));
+        attribute.writeString(2, attributes.getLocalName(i));
+        attribute.writeString(3, attributes.getValue(i));
+        element.attributes.add(attribute.toByteArray());
+      }
+      elements.push(element);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+      text.append(ch, start, length);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+      flushText();
+      Element element = elements.pop();
+      //XmlElement: namespace_declaration = 1, namespace_uri = 2, name = 3, attribute = 4, child = 5
+      ProtoOutput message = new ProtoOutput();
+      for (byte[] namespace : element.namespaces) {
+        message.writeMessage(1, namespace);
+      }
+      message.writeString(2, element.uri);
+      message.writeString(3, element.name);
+      for (byte[] attribute : element.attributes) {
+        message.writeMessage(4, attribute);
+      }
+      for (byte[] child : element.children) {
+        message.writeMessage(5, child);
+      }
+      //XmlNode: element = 1
+      ProtoOutput node = new ProtoOutput();
+      node.writeMessage(1, message.toByteArray());
+      if (elements.isEmpty()) {
+        root = node.toByteArray();
+      } else {
+        elements.peek().children.add(node.toByteArray());
+      }
+    }
+
+    private void flushText() {
+      if (text.length() == 0) {
+        return;
+      }
+      if (!elements.isEmpty() && !text.toString().trim().isEmpty()) {
+        //XmlNode: text = 2
+        ProtoOutput node = new ProtoOutput();
+        node.writeString(2, text.toString());
+        elements.peek().children.add(node.toByteArray());
+      }
+      text.setLength(0);
+    }
+  }
+
+  private static final class Element {
+
+    final String uri;
+    final String name;
+    final List<byte[]> namespaces = new ArrayList<>();
+    final List<byte[]> attributes = new ArrayList<>();
+    final List<byte[]> children = new ArrayList<>();
+
+    Element(String uri, String name) {
+      this.uri = uri;
+      this.name = name;
+    }
+  }
+
+  /**
+   * protobuf编码，只支持用到的varint和length-delimited字段，proto3默认值（0、空字符串）不输出
+   */
+  private static final class ProtoOutput {
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    void writeVarint(int field, long value) {
+      if (value == 0) {
+        return;
+      }
+      writeRawVarint((field << 3) | WIRE_VARINT);
+      writeRawVarint(value);
+    }
+
+    void writeString(int field, String value) {
+      if (value == null || value.isEmpty()) {
+        return;
+      }
+      writeMessage(field, value.getBytes(FragmentTemplate.UTF_8));
+    }
+
+    /**
+     * 子消息即使为空也输出，表示字段已设置
+     */
+    void writeMessage(int field, byte[] bytes) {
+      writeRawVarint((field << 3) | WIRE_LENGTH_DELIMITED);
+      writeRawVarint(bytes.length);
+      out.write(bytes, 0, bytes.length);
+    }
+
+    private void writeRawVarint(long value) {
+      while ((value & ~0x7FL) != 0) {
+        out.write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      out.write((int) value);
+    }
+
+    byte[] toByteArray() {
+      return out.toByteArray();
+    }
+  }
+}
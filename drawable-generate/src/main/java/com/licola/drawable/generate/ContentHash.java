@@ -0,0 +1,34 @@
+package com.licola.drawable.generate;
+
+/**
+ * 64位FNV-1a内容哈希，用于判断生成内容是否变化
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+final class ContentHash {
+
+  static final long INITIAL = 0xcbf29ce484222325L;
+
+  private static final long PRIME = 0x100000001b3L;
+
+  private ContentHash() {
+  }
+
+  static long update(long hash, byte[] bytes, int offset, int length) {
+    for (int i = offset, end = offset + length; i < end; i++) {
+      hash ^= bytes[i] & 0xff;
+      hash *= PRIME;
+    }
+    return hash;
+  }
+
+  static long update(long hash, byte b) {
+    hash ^= b & 0xff;
+    return hash * PRIME;
+  }
+
+  static long update(long hash, byte[] bytes) {
+    return update(hash, bytes, 0, bytes.length);
+  }
+}
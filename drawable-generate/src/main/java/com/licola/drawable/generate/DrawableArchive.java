@@ -0,0 +1,79 @@
+package com.licola.drawable.generate;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 单个压缩包输出：全部叶子按res/drawable/目录结构写入同一个zip，代替大量小文件
+ *
+ * 整个压缩包只使用一个输出流和一个Deflater，多个Builder可以共享同一个压缩包，由调用方负责关闭
+ * <pre>
+ * DrawableArchive archive = new DrawableArchive(new File("drawable.zip"));
+ * try {
+ *   DrawableGenerate.newBuilder(dir, true, "oval", "circle")
+ *       .archive(archive)
+ *       .addSolid(new String[]{"black_A87", "black_A54"})
+ *       .build();
+ * } finally {
+ *   archive.close();
+ * }
+ * </pre>
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+public final class DrawableArchive implements Closeable {
+
+  public static final String ENTRY_DIR = "res/drawable/";
+
+  /**
+   * 固定的条目时间（1980-01-01），相同内容生成相同的压缩包
+   */
+  private static final long ENTRY_TIME = 315532800000L;
+
+  private final ZipOutputStream outputStream;
+
+  public DrawableArchive(File archiveFile) throws IOException {
+    this(archiveFile, Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * @param archiveFile 压缩包文件
+   * @param level 压缩级别，见{@link Deflater}
+   */
+  public DrawableArchive(File archiveFile, int level) throws IOException {
+    this(new BufferedOutputStream(new FileOutputStream(archiveFile)), level);
+  }
+
+  /**
+   * @param outputStream 压缩包输出流，关闭压缩包时一并关闭
+   * @param level 压缩级别，见{@link Deflater}
+   */
+  public DrawableArchive(OutputStream outputStream, int level) {
+    this.outputStream = new ZipOutputStream(outputStream);
+    this.outputStream.setLevel(level);
+  }
+
+  /**
+   * 写入一个叶子，并行生成时各线程在此串行
+   */
+  synchronized void write(String name, LeafBuffer buffer) throws IOException {
+    ZipEntry entry = new ZipEntry(ENTRY_DIR + name + DrawableGenerate.FILE_SUFFIX);
+    entry.setTime(ENTRY_TIME);
+    outputStream.putNextEntry(entry);
+    outputStream.write(buffer.array(), 0, buffer.size());
+    outputStream.closeEntry();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    outputStream.close();
+  }
+}
@@ -0,0 +1,211 @@
+package com.licola.drawable.generate;
+
+import com.licola.drawable.generate.DrawableGenerate.Builder;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 批量生成：多个Builder的叶子分段在同一个线程池中一次调度完成，代替逐个build串行执行
+ *
+ * 各Builder的准备（读取清单等）和收尾（提交清单、删除过期文件）仍按Builder独立处理
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+public final class DrawableBatch {
+
+  private final List<Builder> builders = new ArrayList<>();
+  private final int parallelism;
+
+  private File aliasValuesFile;
+
+  private int shardIndex;
+  private int shardCount = 1;
+
+  private boolean cleanStaleOwners;
+  private GenerationCache cache;
+
+  /**
+   * @param parallelism 并行度，小于等于0时使用CPU核数
+   */
+  public DrawableBatch(int parallelism) {
+    this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+  }
+
+  public DrawableBatch add(Builder builder) {
+    builders.add(builder);
+    return this;
+  }
+
+  public DrawableBatch addAll(List<Builder> builders) {
+    this.builders.addAll(builders);
+    return this;
+  }
+
+  /**
+   * 跨Builder去重：内容相同的叶子只生成第一个，其余名称作为drawable别名写入values文件，减少编译和打包的资源数量
+   *
+   * @param aliasValuesFile 别名values文件，如res/values/drawable_aliases.xml
+   */
+  public DrawableBatch dedup(File aliasValuesFile) {
+    this.aliasValuesFile = aliasValuesFile;
+    return this;
+  }
+
+  /**
+   * 分片生成：每个Builder的叶子序号均分为count段，本批只生成第index段，多个进程各执行一个分片即可生成全部文件
+   *
+   * @param index 分片下标，范围[0, count)
+   * @param count 分片数量
+   */
+  public DrawableBatch shard(int index, int count) {
+    if (count <= 0 || index < 0 || index >= count) {
+      throw new IllegalArgumentException("分片" + index + "/" + count + "超出范围");
+    }
+    this.shardIndex = index;
+    this.shardCount = count;
+    return this;
+  }
+
+  /**
+   * 本批包含各输出目录的全部Builder：生成后清单中不属于本批的Builder分组视为过期，删除其文件
+   * 只对开启cleanStale的Builder生效，分片生成时不清理
+   *
+   * @param cleanStaleOwners 是否删除已移除的Builder遗留的文件
+   */
+  public DrawableBatch cleanStaleOwners(boolean cleanStaleOwners) {
+    this.cleanStaleOwners = cleanStaleOwners;
+    return this;
+  }
+
+  /**
+   * @param cache 清理过期分组时读取生成清单使用的缓存，应与各Builder的缓存相同，为null时直接读取文件
+   */
+  public DrawableBatch cache(GenerationCache cache) {
+    this.cache = cache;
+    return this;
+  }
+
+  /**
+   * 执行全部Builder
+   *
+   * @return 按添加顺序的生成结果，失败时错误记录在对应结果中；别名文件写入失败时在最后追加一个失败结果
+   */
+  public List<GenerationResult> run() {
+    long start = System.nanoTime();
+
+    int size = builders.size();
+    List<DrawableGenerate> generates = new ArrayList<>(size);
+    List<List<Future<GenerationResult>>> builderFutures = new ArrayList<>(size);
+    List<GenerationResult> results = new ArrayList<>(size);
+
+    //清单key重复的Builder会互相删除文件，整批都不生成
+    List<String> duplicateKeys = DrawableGenerate.duplicateManifestKeys(builders);
+    if (!duplicateKeys.isEmpty()) {
+      IOException duplicated = new IOException("生成清单key重复，请用manifestKey区分:" + duplicateKeys);
+      for (Builder builder : builders) {
+        results.add(DrawableGenerate.create(builder).failed(duplicated));
+      }
+      return results;
+    }
+
+    //去重需要在生成前按顺序规划全部Builder的叶子
+    DrawableDedup dedup = aliasValuesFile != null ? new DrawableDedup() : null;
+    boolean invalid = false;
+    for (Builder builder : builders) {
+      DrawableGenerate generate = DrawableGenerate.create(builder);
+      if (shardCount > 1) {
+        long leafCount = builder.leafCount();
+        generate.range(DrawableGenerate.shardStart(leafCount, shardIndex, shardCount),
+            DrawableGenerate.shardStart(leafCount, shardIndex + 1, shardCount));
+      }
+      GenerationResult failed = null;
+      try {
+        generate.prepare();
+        if (dedup != null) {
+          generate.planDedup(dedup);
+        }
+      } catch (IOException e) {
+        failed = generate.failed(e);
+        invalid |= e instanceof ResourceValidationException;
+      }
+      generates.add(generate);
+      results.add(failed);
+    }
+
+    //任一Builder资源校验失败时整批都不写入，结果中列出全部Builder的缺失引用
+    if (invalid) {
+      for (int i = 0; i < size; i++) {
+        if (results.get(i) == null) {
+          results.set(i, generates.get(i).failed(new IOException("其他Builder资源校验失败，未生成")));
+        }
+      }
+      return results;
+    }
+
+    ExecutorService executor = new ForkJoinPool(parallelism);
+    try {
+      //先提交全部Builder的分段，再统一等待
+      for (int i = 0; i < size; i++) {
+        List<Future<GenerationResult>> futures = new ArrayList<>();
+        if (results.get(i) == null) {
+          for (Callable<GenerationResult> chunk : generates.get(i).chunks(parallelism)) {
+            futures.add(executor.submit(chunk));
+          }
+        }
+        builderFutures.add(futures);
+      }
+
+      for (int i = 0; i < size; i++) {
+        if (results.get(i) != null) {
+          continue;
+        }
+        DrawableGenerate generate = generates.get(i);
+        GenerationResult result;
+        try {
+          result = generate.finish(DrawableGenerate.awaitChunks(builderFutures.get(i)), start);
+        } catch (IOException e) {
+          result = generate.failed(e);
+        }
+        results.set(i, result);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    if (cleanStaleOwners && shardCount == 1 && allSucceeded(results)) {
+      try {
+        GenerationResult deleted = DrawableGenerate.cleanStaleOwners(builders, cache);
+        if (deleted != null) {
+          results.add(deleted);
+        }
+      } catch (IOException e) {
+        results.add(GenerationResult.failed("过期Builder", GenerationManifest.FILE_NAME, e));
+      }
+    }
+
+    if (dedup != null) {
+      try {
+        dedup.writeAliases(aliasValuesFile);
+      } catch (IOException e) {
+        results.add(GenerationResult.failed("drawable别名", aliasValuesFile.getPath(), e));
+      }
+    }
+    return results;
+  }
+
+  private static boolean allSucceeded(List<GenerationResult> results) {
+    for (GenerationResult result : results) {
+      if (!result.isSuccess()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
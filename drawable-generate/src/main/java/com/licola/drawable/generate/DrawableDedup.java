@@ -0,0 +1,141 @@
+package com.licola.drawable.generate;
+
+import com.licola.drawable.generate.DrawableGenerate.DrawableNode;
+import com.licola.drawable.generate.DrawableGenerate.LeafCursor;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 跨Builder的内容去重：内容相同的叶子只生成第一个（按Builder添加顺序、叶子顺序），
+ * 其余名称作为{@code <item type="drawable">}别名写入values文件
+ *
+ * 先以长度和64位哈希查找内容可能相同的叶子，再重新渲染两者逐字节比较，哈希碰撞时不会别名到错误的内容
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+final class DrawableDedup {
+
+  private static final class ContentKey {
+
+    final long length;
+    final long hash;
+
+    ContentKey(long length, long hash) {
+      this.length = length;
+      this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof ContentKey)) {
+        return false;
+      }
+      ContentKey that = (ContentKey) o;
+      return length == that.length && hash == that.hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) (hash ^ (hash >>> 32)) * 31 + (int) length;
+    }
+  }
+
+  /**
+   * 实际生成的叶子：只记录所在Builder的各层和叶子序号，比较时重新渲染
+   */
+  private static final class CanonicalLeaf {
+
+    final String name;
+    final List<List<DrawableNode>> levels;
+    final long ordinal;
+
+    CanonicalLeaf(String name, List<List<DrawableNode>> levels, long ordinal) {
+      this.name = name;
+      this.levels = levels;
+      this.ordinal = ordinal;
+    }
+  }
+
+  private final Map<ContentKey, CanonicalLeaf> canonicalLeaves = new HashMap<>();
+
+  private final LeafBuffer leafBuffer = new LeafBuffer();
+  private final LeafBuffer canonicalBuffer = new LeafBuffer();
+
+  /**
+   * 别名到实际生成文件名的映射，规划完成后只读，生成时多线程共享
+   */
+  private final Map<String, String> aliases = new HashMap<>();
+
+  /**
+   * 规划一个Builder的全部叶子，需要按Builder顺序依次调用
+   * 哈希碰撞（长度和哈希相同但内容不同）时照常生成该叶子，不作为别名
+   *
+   * @param levels 游标所在Builder的各层
+   */
+  void plan(List<List<DrawableNode>> levels, LeafCursor cursor) {
+    while (cursor.next()) {
+      String name = cursor.name();
+      ContentKey key = new ContentKey(cursor.length(), cursor.hash());
+      CanonicalLeaf canonical = canonicalLeaves.get(key);
+      if (canonical == null) {
+        canonicalLeaves.put(key, new CanonicalLeaf(name, levels, cursor.ordinal()));
+      } else if (!canonical.name.equals(name) && sameContent(canonical, cursor)) {
+        aliases.put(name, canonical.name);
+      }
+    }
+  }
+
+  private boolean sameContent(CanonicalLeaf canonical, LeafCursor cursor) {
+    leafBuffer.reset();
+    cursor.render(leafBuffer);
+    LeafCursor canonicalCursor = new LeafCursor(canonical.levels, canonical.ordinal,
+        canonical.ordinal + 1);
+    canonicalCursor.next();
+    canonicalBuffer.reset();
+    canonicalCursor.render(canonicalBuffer);
+    if (leafBuffer.size() != canonicalBuffer.size()) {
+      return false;
+    }
+    byte[] leafBytes = leafBuffer.array();
+    byte[] canonicalBytes = canonicalBuffer.array();
+    for (int i = 0; i < leafBuffer.size(); i++) {
+      if (leafBytes[i] != canonicalBytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return 别名指向的实际文件名，不是别名时为null
+   */
+  String aliasOf(String name) {
+    return aliases.get(name);
+  }
+
+  int aliasCount() {
+    return aliases.size();
+  }
+
+  /**
+   * 按名称排序写入别名values文件，内容未变化时不写入
+   */
+  void writeAliases(File valuesFile) throws IOException {
+    StringBuilder content = new StringBuilder()
+        .append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n")
+        .append("<resources>\n");
+    for (Map.Entry<String, String> alias : new TreeMap<>(aliases).entrySet()) {
+      content.append("  <item name=\"").append(alias.getKey())
+          .append("\" type=\"drawable\">@drawable/").append(alias.getValue())
+          .append("</item>\n");
+    }
+    content.append("</resources>\n");
+    DrawableIndexWriter.writeIfChanged(valuesFile,
+        content.toString().getBytes(FragmentTemplate.UTF_8));
+  }
+}
@@ -1,15 +1,36 @@
 package com.licola.drawable.generate;
 
 
-import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Drawable资源构建类 示例：指定相同shape形状的不同资源形式 DrawableGenerate.newBuilder(dir, "oval", "circle", true)
@@ -21,21 +42,122 @@ import java.util.Locale;
  *
  * 构造过程add过程，类似多叉树（有重复节点）的构造过程，每一层的叶子节点都包含上一级全部信息。 最后的叶子节点是具有完备的节点信息，build就是使用多叉树叶子节点过程，根据叶子生成对应的drawable文件
  *
+ * 多叉树并不实际构造：add过程只按层记录片段列表，generate时用混合进制计数器惰性遍历全部叶子组合，工作内存只与层级深度相关
+ *
  * 更新记录：
  * 2018/12/11：精简类，优化成一个类文件处理。并开放外部
+ * 2026/10/17：按层记录片段，惰性遍历叶子，不再构造整棵多叉树
  * @author LiCola
  * @date 2018/8/16
  */
 public class DrawableGenerate {
 
-  private static final String FILE_SUFFIX = ".xml";
-
-  private static final byte[] HEAD = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n".getBytes();
+  static final String FILE_SUFFIX = ".xml";
+
+  /**
+   * 并行生成时每段最少的叶子数量，避免分段过细
+   */
+  private static final int MIN_CHUNK_SIZE = 64;
+
+  /**
+   * 比较已有文件内容时的读取缓冲大小
+   */
+  private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+  static final byte[] HEAD = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+      .getBytes(FragmentTemplate.UTF_8);
+
+  private static final FragmentTemplate SHAPE_START = FragmentTemplate
+      .compile("<shape xmlns:android=\"http://schemas.android.com/apk/res/android\"\n"
+          + "  android:shape=\"%s\">");
+  private static final byte[] SHAPE_END = "</shape>".getBytes(FragmentTemplate.UTF_8);
+
+  static final String SELECTOR = "selector";
+  private static final byte[] SELECTOR_START = ("<selector "
+      + "xmlns:android=\"http://schemas.android.com/apk/res/android\">")
+      .getBytes(FragmentTemplate.UTF_8);
+  private static final byte[] SELECTOR_END = "</selector>".getBytes(FragmentTemplate.UTF_8);
+
+  static final String LAYER_LIST = "layer-list";
+  private static final byte[] LAYER_LIST_START = ("<layer-list "
+      + "xmlns:android=\"http://schemas.android.com/apk/res/android\">")
+      .getBytes(FragmentTemplate.UTF_8);
+  private static final byte[] LAYER_LIST_END = "</layer-list>".getBytes(FragmentTemplate.UTF_8);
+
+  private static final FragmentTemplate STATE_ITEM = FragmentTemplate
+      .compile("\t<item android:%s=\"true\" android:drawable=\"%s\" />");
+  private static final FragmentTemplate ITEM = FragmentTemplate
+      .compile("\t<item android:drawable=\"%s\" />");
+
+  private static final FragmentTemplate CORNERS = FragmentTemplate
+      .compile("\t<corners android:radius=\"%s\" />");
+  private static final FragmentTemplate CORNERS_TOP = FragmentTemplate
+      .compile("\t<corners\n"
+          + "    android:topLeftRadius=\"%s\"\n"
+          + "    android:topRightRadius=\"%s\" />");
+  private static final FragmentTemplate CORNERS_BOTTOM = FragmentTemplate
+      .compile("\t<corners\n"
+          + "    android:bottomLeftRadius=\"%s\"\n"
+          + "    android:bottomRightRadius=\"%s\" />");
+  private static final FragmentTemplate CORNERS_LEFT = FragmentTemplate
+      .compile("\t<corners\n"
+          + "    android:bottomLeftRadius=\"%s\"\n"
+          + "    android:topLeftRadius=\"%s\" />");
+  private static final FragmentTemplate CORNERS_RIGHT = FragmentTemplate
+      .compile("\t<corners\n"
+          + "    android:bottomRightRadius=\"%s\"\n"
+          + "    android:topRightRadius=\"%s\" />");
+  private static final FragmentTemplate SOLID = FragmentTemplate
+      .compile("\t<solid android:color=\"%s\" />");
+  private static final FragmentTemplate SIZE = FragmentTemplate
+      .compile("\t<size\n"
+          + "    android:height=\"%s\"\n"
+          + "    android:width=\"%s\" />");
+  private static final FragmentTemplate STROKE = FragmentTemplate
+      .compile("\t<stroke\n"
+          + "    android:width=\"%s\"\n"
+          + "    android:color=\"%s\" />");
+
+  /**
+   * 片段中需要校验的资源引用，不包含@android:等系统资源
+   */
+  private static final Pattern RESOURCE_REFERENCE = Pattern
+      .compile("@(color|dimen)/([A-Za-z0-9_.]+)");
+
+  private static final GenerationManifest.Entry UNKNOWN_ENTRY = new GenerationManifest.Entry(-1, 0);
+
+  private static final String FLAT_OWNER_PREFIX = "flat:";
 
   private Builder builder;
 
+  /**
+   * 生成清单中上次生成的文件，未开启cleanStale时为空
+   */
+  private Map<String, GenerationManifest.Entry> previousEntries = Collections.emptyMap();
+  /**
+   * 本次生成的文件，并行分段共同写入，未开启cleanStale时为null
+   */
+  private Map<String, GenerationManifest.Entry> producedEntries;
+
+  /**
+   * 聚集写入时共享的只读片段缓冲，未开启gatheringWrite时为null
+   */
+  private ByteBuffer[][] fragmentBuffers;
+
+  /**
+   * 批量生成时的内容去重，未开启时为null
+   */
+  private DrawableDedup dedup;
+
+  /**
+   * 本次生成的叶子序号区间[rangeFrom, rangeTo)，默认为全部叶子
+   */
+  private long rangeFrom;
+  private long rangeTo;
+
   private DrawableGenerate(Builder builder) {
     this.builder = builder;
+    this.rangeTo = LeafCursor.leafCount(builder.levels);
   }
 
   public static Builder newBuilder(File outDir, boolean replace, String shape, String shapeAlias) {
@@ -46,358 +168,1732 @@ public class DrawableGenerate {
     return new Builder(outDir, replace, shape, shape);
   }
 
-  public int generate() throws IOException {
+  /**
+   * 组合的状态选择器：每层为另一个Builder的全部叶子，生成的item只以@drawable/引用叶子，不复制shape内容
+   * 示例：按下/默认两层 newSelector(dir, true, "button").addState("state_pressed", pressed).addDefault(normal)
+   * 只能添加状态层，addSolid等shape的子节点会直接抛出IllegalStateException
+   *
+   * @param alias 文件名前缀
+   */
+  public static Builder newSelector(File outDir, boolean replace, String alias) {
+    return new Builder(outDir, replace, SELECTOR, alias,
+        new DrawableNode(alias, SELECTOR_START), SELECTOR_END);
+  }
+
+  /**
+   * 组合的图层列表：每层为另一个Builder的全部叶子，按添加顺序从下到上绘制
+   * 只能添加图层，addSolid等shape的子节点会直接抛出IllegalStateException
+   *
+   * @param alias 文件名前缀
+   */
+  public static Builder newLayerList(File outDir, boolean replace, String alias) {
+    return new Builder(outDir, replace, LAYER_LIST, alias,
+        new DrawableNode(alias, LAYER_LIST_START), LAYER_LIST_END);
+  }
+
+  /**
+   * 创建生成器，Builder添加结束节点后不能再继续添加
+   */
+  static DrawableGenerate create(Builder builder) {
+    return new DrawableGenerate(builder.close());
+  }
+
+  /**
+   * 生成全部叶子文件，单个文件的错误记录在结果中，清单读写等整体失败时抛出
+   */
+  public GenerationResult generate() throws IOException {
+    long start = System.nanoTime();
+    prepare();
+    return finish(generateLeafs(), start);
+  }
+
+  /**
+   * 只生成叶子序号区间[from, to)，需要在{@link #prepare()}前调用
+   * 只生成部分叶子时不提交生成清单、不删除过期文件，避免删除其他分片生成的文件
+   */
+  void range(long from, long to) {
+    long leafCount = LeafCursor.leafCount(builder.levels);
+    if (from < 0 || from > to || to > leafCount) {
+      throw new IllegalArgumentException(
+          "叶子序号区间[" + from + ", " + to + ")超出范围[0, " + leafCount + ")");
+    }
+    this.rangeFrom = from;
+    this.rangeTo = to;
+  }
+
+  /**
+   * 均分叶子序号：第index个分片的起始序号，第index+1个分片的起始序号即为其结束序号
+   *
+   * @param index 分片下标，等于count时返回leafCount
+   * @param count 分片数量
+   */
+  static long shardStart(long leafCount, int index, int count) {
+    return leafCount / count * index + Math.min(index, leafCount % count);
+  }
+
+  /**
+   * 生成前的准备：检查组合数量上限，校验资源引用，编码聚集写入的片段缓冲，读取生成清单
+   */
+  void prepare() throws IOException {
+    long leafCount = LeafCursor.leafCount(builder.levels);
+    if (leafCount == LeafCursor.OVERFLOW) {
+      throw new IOException(builder.shapeAlias + "的组合数量超出long范围，请拆分Builder");
+    }
+    if (builder.maxLeaves > 0 && leafCount > builder.maxLeaves) {
+      throw new IOException(builder.shapeAlias + "的组合数量" + leafCount
+          + "超过上限" + builder.maxLeaves);
+    }
+    if (builder.indexSourceDir != null && leafCount > DrawableIndexWriter.MAX_LEAVES) {
+      throw new IOException(builder.shapeAlias + "的组合数量" + leafCount
+          + "超过索引类上限" + DrawableIndexWriter.MAX_LEAVES + "，请拆分Builder");
+    }
+
+    if (builder.resourceIndex != null) {
+      List<String> missing = missingReferences(builder.resourceIndex);
+      if (!missing.isEmpty()) {
+        throw new ResourceValidationException(builder.shapeAlias, missing);
+      }
+    }
+
+    if (builder.archive != null) {
+      return;
+    }
+
+    if (builder.compiledDir != null) {
+      Aapt2FlatWriter.resourceType(builder.outDir);
+    } else if (builder.gatheringWrite) {
+      fragmentBuffers = builder.cache != null ? builder.cache.fragments(builder.levels)
+          : GatheringXmlWriter.encode(builder.levels);
+    }
+
+    if (builder.cleanStale) {
+      previousEntries = GenerationManifest.load(manifestDir(builder), builder.cache)
+          .entries(manifestOwner(builder));
+      if (rangeFrom == 0 && rangeTo == LeafCursor.leafCount(builder.levels)) {
+        producedEntries = new ConcurrentHashMap<>();
+      }
+    }
+  }
+
+  /**
+   * 全部叶子生成后：提交生成清单并删除过期文件，写入索引类，补充结果统计
+   *
+   * @param result 全部分段合并后的结果
+   * @param startNanos 开始生成的时间
+   */
+  GenerationResult finish(GenerationResult result, long startNanos) throws IOException {
+    if (producedEntries != null) {
+      File manifestDir = manifestDir(builder);
+      Set<String> staleNames = GenerationManifest
+          .commit(manifestDir, manifestOwner(builder), producedEntries, builder.cache);
+      for (String staleName : staleNames) {
+        File staleFile = manifestFile(manifestDir, staleName, builder.compiledDir != null);
+        if (staleFile.exists() && !staleFile.delete()) {
+          throw new IOException("无法删除过期文件:" + staleFile);
+        }
+        result.onDeleted();
+      }
+    }
+
+    if (builder.indexSourceDir != null && rangeFrom == 0) {
+      DrawableIndexWriter.write(builder.indexSourceDir, builder.indexClassName,
+          builder.rClassName, builder.shapeAlias, builder.levels, builder.levelTags,
+          newCursor(0, LeafCursor.leafCount(builder.levels)));
+    }
+
+    result.setShapeAlias(builder.shapeAlias);
+    result.setNodes(LeafCursor.nodeCount(builder.levels));
+    result.setElapsedNanos(System.nanoTime() - startNanos);
+    return result;
+  }
+
+  /**
+   * 同一输出目录下开启cleanStale的Builder，生成清单key必须唯一，否则提交清单时会互相删除对方的文件
+   *
+   * @return 重复的key，没有重复时为空
+   */
+  static List<String> duplicateManifestKeys(List<Builder> builders) {
+    Set<String> keys = new HashSet<>();
+    Set<String> duplicates = new TreeSet<>();
+    for (Builder builder : builders) {
+      if (usesManifest(builder)) {
+        String key = manifestOwner(builder);
+        if (!keys.add(manifestDir(builder).getAbsolutePath() + '\n' + key)) {
+          duplicates.add(manifestDir(builder).getPath() + ":" + key);
+        }
+      }
+    }
+    return new ArrayList<>(duplicates);
+  }
+
+  /**
+   * 输出目录的全部Builder已知时（批量生成、gradle任务）：清单中不属于这些Builder的分组视为过期，删除其文件
+   * 处理删除了Builder、修改了shape或层（默认key随之变化）后遗留的文件
+   *
+   * @param builders 输出目录下的全部Builder
+   * @return 删除结果，没有过期分组时为null
+   */
+  static GenerationResult cleanStaleOwners(List<Builder> builders, GenerationCache cache)
+      throws IOException {
+    Map<File, Set<String>> owners = new LinkedHashMap<>();
+    Set<File> compiledDirs = new HashSet<>();
+    for (Builder builder : builders) {
+      if (usesManifest(builder)) {
+        File manifestDir = manifestDir(builder).getAbsoluteFile();
+        Set<String> keys = owners.get(manifestDir);
+        if (keys == null) {
+          keys = new HashSet<>();
+          owners.put(manifestDir, keys);
+        }
+        keys.add(manifestOwner(builder));
+        if (builder.compiledDir != null) {
+          compiledDirs.add(manifestDir);
+        }
+      }
+    }
+
+    GenerationResult result = null;
+    for (Map.Entry<File, Set<String>> entry : owners.entrySet()) {
+      Set<String> staleNames = GenerationManifest.retain(entry.getKey(), entry.getValue(), cache);
+      for (String staleName : staleNames) {
+        File staleFile = manifestFile(entry.getKey(), staleName,
+            compiledDirs.contains(entry.getKey()));
+        if (staleFile.exists() && !staleFile.delete()) {
+          throw new IOException("无法删除过期文件:" + staleFile);
+        }
+        if (result == null) {
+          result = new GenerationResult();
+          result.setShapeAlias("过期Builder");
+        }
+        result.onDeleted();
+      }
+    }
+    return result;
+  }
+
+  private static boolean usesManifest(Builder builder) {
+    return builder.cleanStale && builder.archive == null;
+  }
+
+  /**
+   * @return 生成清单所在目录：输出xml时为输出目录，编译输出时为.flat文件目录
+   */
+  private static File manifestDir(Builder builder) {
+    return builder.compiledDir != null ? builder.compiledDir : builder.outDir;
+  }
+
+  /**
+   * .flat文件目录由多种资源类型共用，编译输出的分组以资源类型区分，与xml输出的分组互不影响
+   *
+   * @return 生成清单中的分组key
+   */
+  private static String manifestOwner(Builder builder) {
+    String key = builder.manifestKey();
+    return builder.compiledDir != null ? FLAT_OWNER_PREFIX + builder.outDir.getName() + '/' + key
+        : key;
+  }
+
+  /**
+   * @param name 清单中的文件名：输出xml时为叶子名称，编译输出时为完整的.flat文件名
+   */
+  private static File manifestFile(File manifestDir, String name, boolean compiled) {
+    return compiled ? new File(manifestDir, name) : makeFile(manifestDir, name);
+  }
+
+  /**
+   * 检查各层片段（包括自定义节点）中的@color/@dimen引用，每层只检查一次，不需要展开叶子
+   *
+   * @return 排序去重后的不存在的引用
+   */
+  List<String> missingReferences(ResourceIndex index) {
+    Set<String> missing = new TreeSet<>();
+    for (List<DrawableNode> level : builder.levels) {
+      for (DrawableNode node : level) {
+        Matcher matcher = RESOURCE_REFERENCE
+            .matcher(new String(node.content, FragmentTemplate.UTF_8));
+        while (matcher.find()) {
+          if (!index.contains(matcher.group(1), matcher.group(2))) {
+            missing.add(matcher.group());
+          }
+        }
+      }
+    }
+    return new ArrayList<>(missing);
+  }
+
+  /**
+   * 参与批量去重：规划本Builder的全部叶子，与之前Builder内容相同的叶子不再生成，需要在{@link #prepare()}后调用
+   */
+  void planDedup(DrawableDedup dedup) {
+    dedup.plan(builder.levels, newCursor(0, LeafCursor.leafCount(builder.levels)));
+    this.dedup = dedup;
+  }
+
+  /**
+   * @return 整体失败的结果
+   */
+  GenerationResult failed(IOException exception) {
+    return GenerationResult.failed(builder.shapeAlias, builder.outDir.getPath(), exception);
+  }
+
+  private GenerationResult generateLeafs() throws IOException {
+
+    if (usesPipeline()) {
+      return generatePipeline(builder.pipelineWriters, builder.pipelineCapacity);
+    }
+
+    ExecutorService executor = builder.executor;
+    int parallelism = builder.parallelism;
+    if (executor == null && parallelism <= 1) {
+      return generateRange(rangeFrom, rangeTo);
+    }
+
+    boolean ownExecutor = executor == null;
+    if (ownExecutor) {
+      executor = new ForkJoinPool(parallelism);
+    } else if (parallelism <= 1) {
+      parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    List<Future<GenerationResult>> futures = new ArrayList<>();
+    try {
+      for (Callable<GenerationResult> chunk : chunks(parallelism)) {
+        futures.add(executor.submit(chunk));
+      }
+      return awaitChunks(futures);
+    } finally {
+      if (ownExecutor) {
+        executor.shutdown();
+      }
+    }
+  }
+
+  /**
+   * 流水线只用于直接写入xml文件，归档和编译输出按分段生成
+   */
+  private boolean usesPipeline() {
+    return builder.pipelineWriters > 0 && builder.archive == null && builder.compiledDir == null;
+  }
+
+  /**
+   * 把本次生成的叶子序号区间切分成多段，每段可以在任意线程执行，需要先调用{@link #prepare()}
+   * 使用流水线时只有一段，由它自己的写入线程并行写入
+   *
+   * @param parallelism 并行度，每个线程分多段，避免某一段写入慢时其他线程空闲
+   */
+  List<Callable<GenerationResult>> chunks(int parallelism) {
+    if (usesPipeline()) {
+      return Collections.<Callable<GenerationResult>>singletonList(
+          new Callable<GenerationResult>() {
+            @Override
+            public GenerationResult call() throws Exception {
+              return generatePipeline(builder.pipelineWriters, builder.pipelineCapacity);
+            }
+          });
+    }
+
+    long leafCount = rangeTo - rangeFrom;
+    long chunkCount = Math.max(1, parallelism) * 4L;
+    long chunkSize = Math.max(MIN_CHUNK_SIZE, (leafCount + chunkCount - 1) / chunkCount);
+
+    List<Callable<GenerationResult>> chunks = new ArrayList<>();
+    for (long from = rangeFrom; from < rangeTo; from += chunkSize) {
+      final long chunkFrom = from;
+      final long chunkTo = Math.min(rangeTo, from + chunkSize);
+      chunks.add(new Callable<GenerationResult>() {
+        @Override
+        public GenerationResult call() throws Exception {
+          return generateRange(chunkFrom, chunkTo);
+        }
+      });
+    }
+    return chunks;
+  }
+
+  /**
+   * 生成序号区间[from, to)内的叶子文件，单个文件的I/O错误记录在结果中，不影响其他文件
+   */
+  private GenerationResult generateRange(long from, long to) throws IOException {
 
     File outDir = builder.outDir;
-    boolean replace = builder.replace;
+    boolean skipUnchanged = builder.skipUnchanged;
+    DrawableArchive archive = builder.archive;
+    Aapt2FlatWriter flatWriter = archive == null && builder.compiledDir != null
+        ? new Aapt2FlatWriter(builder.compiledDir, outDir) : null;
+
+    LeafCursor cursor = newCursor(from, to);
+
+    GenerationResult result = new GenerationResult();
+    byte[] readBuffer = skipUnchanged ? new byte[READ_BUFFER_SIZE] : null;
+    GatheringXmlWriter gatheringWriter = fragmentBuffers != null
+        ? new GatheringXmlWriter(fragmentBuffers) : null;
+    CursorLeaf cursorLeaf = new CursorLeaf(cursor, gatheringWriter);
+    FlatLeaf flatLeaf = flatWriter != null ? new FlatLeaf(cursor, flatWriter) : null;
+
+    long time = System.nanoTime();
+    while (cursor.next()) {
+      String name = cursor.name();
+      result.onLeaf();
+      time = result.addEnumerationTime(time);
+
+      if (dedup != null && dedup.aliasOf(name) != null) {
+        result.onAliased();
+        continue;
+      }
 
-    List<DrawableNode> leafsNodes = builder.curLevelNodes;
+      if (archive != null) {
+        LeafBuffer buffer = LeafBuffer.obtain();
+        cursor.render(buffer);
+        time = result.addRenderTime(time);
+        try {
+          archive.write(name, buffer);
+          result.onWritten(buffer.size());
+        } catch (IOException e) {
+          result.onError(name, e);
+        }
+        time = result.addIoTime(time);
+        continue;
+      }
 
-    int fileSum = 0;
-    for (DrawableNode leafsNode : leafsNodes) {
-      File outFile = makeFile(outDir, leafsNode.name);
-      if (!replace && outDir.exists()) {
+      if (flatLeaf != null) {
+        File flatFile = flatWriter.makeFile(name);
+        flatLeaf.reset(name);
+        time = writeLeaf(flatFile.getName(), flatFile, flatLeaf, result, readBuffer, time);
         continue;
       }
-      generateXmlFile(outFile, leafsNode.content.getBytes());
-      fileSum++;
+
+      time = writeLeaf(name, makeFile(outDir, name), cursorLeaf, result, readBuffer, time);
+    }
+
+    result.addPruned(cursor.pruned());
+    return result;
+  }
+
+  /**
+   * 流水线生成：当前线程遍历并渲染叶子到缓冲池的缓冲中，写入线程池负责检查已有文件和写入
+   * 缓冲池容量固定，写入跟不上时渲染线程阻塞等待空闲缓冲，内存占用与叶子数量无关
+   *
+   * @param writers 写入线程数量
+   * @param capacity 等待写入的叶子数量上限
+   */
+  private GenerationResult generatePipeline(int writers, int capacity) throws IOException {
+    final BlockingQueue<LeafBuffer> pool = new ArrayBlockingQueue<>(capacity + writers);
+    for (int i = 0; i < capacity + writers; i++) {
+      pool.add(new LeafBuffer());
+    }
+    final BlockingQueue<PendingLeaf> queue = new ArrayBlockingQueue<>(capacity);
+
+    ExecutorService writerPool = Executors.newFixedThreadPool(writers);
+    List<Future<GenerationResult>> futures = new ArrayList<>(writers);
+    GenerationResult result = new GenerationResult();
+    boolean completed = false;
+    try {
+      for (int i = 0; i < writers; i++) {
+        futures.add(writerPool.submit(new Callable<GenerationResult>() {
+          @Override
+          public GenerationResult call() throws Exception {
+            return writeLeafs(queue, pool);
+          }
+        }));
+      }
+
+      LeafCursor cursor = newCursor(rangeFrom, rangeTo);
+      long time = System.nanoTime();
+      try {
+        while (cursor.next()) {
+          String name = cursor.name();
+          result.onLeaf();
+          time = result.addEnumerationTime(time);
+
+          if (dedup != null && dedup.aliasOf(name) != null) {
+            result.onAliased();
+            continue;
+          }
+
+          //等待空闲缓冲和队列空位的时间计入I/O耗时
+          LeafBuffer buffer = pool.take();
+          time = result.addIoTime(time);
+          buffer.reset();
+          cursor.render(buffer);
+          PendingLeaf leaf = new PendingLeaf(name, cursor.length(),
+              needsHash() ? cursor.hash() : 0, buffer);
+          time = result.addRenderTime(time);
+          queue.put(leaf);
+          time = result.addIoTime(time);
+        }
+        for (int i = 0; i < writers; i++) {
+          queue.put(PendingLeaf.END);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("生成drawable文件被中断");
+      }
+      result.addPruned(cursor.pruned());
+
+      result.merge(awaitChunks(futures));
+      completed = true;
+      return result;
+    } finally {
+      if (completed) {
+        writerPool.shutdown();
+      } else {
+        //遍历或渲染异常时写入线程还阻塞在队列上，中断它们才能退出
+        for (Future<GenerationResult> future : futures) {
+          future.cancel(true);
+        }
+        writerPool.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * 写入线程：依次取出渲染好的叶子写入文件，缓冲用完后归还缓冲池，遇到结束标记时退出
+   */
+  private GenerationResult writeLeafs(BlockingQueue<PendingLeaf> queue,
+      BlockingQueue<LeafBuffer> pool) throws InterruptedException {
+    File outDir = builder.outDir;
+    GenerationResult result = new GenerationResult();
+    byte[] readBuffer = builder.skipUnchanged ? new byte[READ_BUFFER_SIZE] : null;
+
+    PendingLeaf leaf;
+    while ((leaf = queue.take()) != PendingLeaf.END) {
+      try {
+        writeLeaf(leaf.name, makeFile(outDir, leaf.name), leaf, result, readBuffer,
+            System.nanoTime());
+      } finally {
+        pool.put(leaf.buffer);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 写入一个叶子文件，各种生成方式共用：已存在且不替换时跳过，记录生成清单，内容未变化时不写入
+   * 单个文件的错误记录在结果中，不影响其他文件
+   *
+   * @param time 上一次计时的时间
+   * @return 本次计时结束的时间
+   */
+  private long writeLeaf(String name, File outFile, LeafContent leaf, GenerationResult result,
+      byte[] readBuffer, long time) {
+    try {
+      if (!builder.replace && outFile.exists()) {
+        if (producedEntries != null) {
+          GenerationManifest.Entry previous = previousEntries.get(name);
+          producedEntries.put(name, previous != null ? previous : UNKNOWN_ENTRY);
+        }
+        result.onSkipped();
+        return result.addIoTime(time);
+      }
+      time = result.addIoTime(time);
+
+      long length = leaf.length();
+      //只有清单或跳过未变化文件需要哈希，否则生成只是片段拷贝
+      long hash = needsHash() ? leaf.hash() : 0;
+      time = result.addRenderTime(time);
+      if (producedEntries != null) {
+        producedEntries.put(name, new GenerationManifest.Entry(length, hash));
+      }
+      if (builder.skipUnchanged && isUnchanged(outFile, length, hash, previousEntries.get(name),
+          readBuffer)) {
+        result.onUnchanged();
+        return result.addIoTime(time);
+      }
+      time = leaf.write(outFile, result, time);
+      result.onWritten(length);
+    } catch (IOException | RuntimeException e) {
+      //写入失败的文件内容未知，保留在清单中但不再信任其哈希
+      if (producedEntries != null) {
+        producedEntries.put(name, UNKNOWN_ENTRY);
+      }
+      result.onError(outFile.getPath(),
+          e instanceof IOException ? (IOException) e : new IOException(e));
+    }
+    return result.addIoTime(time);
+  }
+
+  /**
+   * 待写入的叶子：长度和哈希不需要渲染，确定写入时才渲染
+   */
+  private interface LeafContent {
+
+    long length() throws IOException;
+
+    long hash() throws IOException;
+
+    /**
+     * @param time 上一次计时的时间，渲染耗时计入结果
+     * @return 渲染结束的时间
+     */
+    long write(File outFile, GenerationResult result, long time) throws IOException;
+  }
+
+  /**
+   * 游标当前位置的叶子，写入时才渲染，聚集写入时直接从片段缓冲写入
+   */
+  private static final class CursorLeaf implements LeafContent {
+
+    private final LeafCursor cursor;
+    private final GatheringXmlWriter gatheringWriter;
+
+    CursorLeaf(LeafCursor cursor, GatheringXmlWriter gatheringWriter) {
+      this.cursor = cursor;
+      this.gatheringWriter = gatheringWriter;
+    }
+
+    @Override
+    public long length() {
+      return cursor.length();
+    }
+
+    @Override
+    public long hash() {
+      return cursor.hash();
+    }
+
+    @Override
+    public long write(File outFile, GenerationResult result, long time) throws IOException {
+      if (gatheringWriter != null) {
+        gatheringWriter.write(outFile, cursor);
+        return time;
+      }
+      LeafBuffer buffer = LeafBuffer.obtain();
+      cursor.render(buffer);
+      time = result.addRenderTime(time);
+      generateXmlFile(outFile, buffer);
+      return time;
+    }
+  }
+
+  /**
+   * 游标当前位置的叶子编译后的.flat内容，第一次需要长度或哈希时才渲染并编译
+   */
+  private static final class FlatLeaf implements LeafContent {
+
+    private final LeafCursor cursor;
+    private final Aapt2FlatWriter flatWriter;
+    private String name;
+    private byte[] flat;
+
+    FlatLeaf(LeafCursor cursor, Aapt2FlatWriter flatWriter) {
+      this.cursor = cursor;
+      this.flatWriter = flatWriter;
+    }
+
+    void reset(String name) {
+      this.name = name;
+      this.flat = null;
+    }
+
+    private byte[] flat() throws IOException {
+      if (flat == null) {
+        LeafBuffer buffer = LeafBuffer.obtain();
+        cursor.render(buffer);
+        flat = flatWriter.compile(name, buffer);
+      }
+      return flat;
+    }
+
+    @Override
+    public long length() throws IOException {
+      return flat().length;
+    }
+
+    @Override
+    public long hash() throws IOException {
+      return ContentHash.update(ContentHash.INITIAL, flat());
+    }
+
+    @Override
+    public long write(File outFile, GenerationResult result, long time) throws IOException {
+      DrawableIndexWriter.writeFile(outFile, flat());
+      return time;
+    }
+  }
+
+  /**
+   * 渲染完成、等待写入的叶子
+   */
+  private static final class PendingLeaf implements LeafContent {
+
+    /**
+     * 结束标记，每个写入线程取到一个后退出
+     */
+    static final PendingLeaf END = new PendingLeaf(null, 0, 0, null);
+
+    final String name;
+    final long length;
+    final long hash;
+    final LeafBuffer buffer;
+
+    PendingLeaf(String name, long length, long hash, LeafBuffer buffer) {
+      this.name = name;
+      this.length = length;
+      this.hash = hash;
+      this.buffer = buffer;
+    }
+
+    @Override
+    public long length() {
+      return length;
+    }
+
+    @Override
+    public long hash() {
+      return hash;
+    }
+
+    @Override
+    public long write(File outFile, GenerationResult result, long time) throws IOException {
+      generateXmlFile(outFile, buffer);
+      return time;
+    }
+  }
+
+  /**
+   * @return 是否需要叶子内容哈希：提交生成清单或比较已有文件时才需要
+   */
+  private boolean needsHash() {
+    return producedEntries != null || builder.skipUnchanged;
+  }
+
+  private LeafCursor newCursor(long from, long to) {
+    return new LeafCursor(builder.levels, builder.constraints, from, to);
+  }
+
+  /**
+   * 等待全部分段完成，任意分段失败都会抛出，其他分段的异常作为suppressed附带
+   */
+  static GenerationResult awaitChunks(List<Future<GenerationResult>> futures)
+      throws IOException {
+    GenerationResult result = new GenerationResult();
+    IOException failure = null;
+    for (Future<GenerationResult> future : futures) {
+      try {
+        result.merge(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        IOException interrupted = new InterruptedIOException("生成drawable文件被中断");
+        if (failure == null) {
+          failure = interrupted;
+        } else {
+          failure.addSuppressed(interrupted);
+        }
+        break;
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        IOException chunkFailure = cause instanceof IOException ? (IOException) cause
+            : new IOException(cause);
+        if (failure == null) {
+          failure = chunkFailure;
+        } else {
+          failure.addSuppressed(chunkFailure);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return result;
+  }
+
+
+  static final class Builder {
+
+    private File outDir;
+    private boolean replace;
+
+    private boolean skipUnchanged;
+
+    private int parallelism = 1;
+    private ExecutorService executor;
+
+    private boolean gatheringWrite;
+
+    private DrawableArchive archive;
+
+    private File compiledDir;
+
+    private ResourceIndex resourceIndex;
+
+    private GenerationCache cache;
+
+    private int pipelineWriters;
+    private int pipelineCapacity;
+
+    private long maxLeaves;
+
+    private File indexSourceDir;
+    private String indexClassName;
+    private String rClassName;
+
+    private boolean cleanStale;
+    private String manifestKey;
+
+    private String shape;
+    private String shapeAlias;
+    /**
+     * 根节点对应的结束片段
+     */
+    private byte[] end;
+
+    /**
+     * 按层记录的片段列表，第0层为shape根节点
+     */
+    private List<List<DrawableNode>> levels = new ArrayList<>();
+
+    /**
+     * 每层的类型，和shape一起组成生成清单中区分Builder的默认key
+     */
+    private List<String> levelTags = new ArrayList<>();
+
+    /**
+     * 按层记录的排除条件，下标与levels对应，没有条件的层为null
+     */
+    private List<List<OnExcludeCombination>> constraints = new ArrayList<>();
+
+    /**
+     * 自定义节点内容的字符串到UTF-8编码的驻留，内容相同的片段共享同一个数组，不重复编码
+     */
+    private Map<String, byte[]> contents = new HashMap<>();
+
+    /**
+     * 纯处理的片段，按处理对象（equals）缓存，只在本Builder内共享
+     */
+    private Map<OnPureProcessResources, DrawableNode> pureNodes = new HashMap<>();
+
+    /**
+     * 是否已添加结束节点
+     */
+    private boolean closed;
+
+    /**
+     * @param outDir 输出目录
+     * @param replace 是否替换已经存在的drawable
+     * @param shape android:shape="形状"
+     * @param shapeAlias 形状别名
+     */
+    Builder(File outDir, boolean replace, String shape, String shapeAlias) {
+      this(outDir, replace, shape, shapeAlias,
+          new DrawableNode(shapeAlias, SHAPE_START.render(shape)), SHAPE_END);
+    }
+
+    private Builder(File outDir, boolean replace, String shape, String shapeAlias,
+        DrawableNode root, byte[] end) {
+      this.outDir = outDir;
+      this.replace = replace;
+
+      this.shape = shape;
+      this.shapeAlias = shapeAlias.isEmpty() ? shape : shapeAlias;
+      this.end = end;
+      levels.add(Collections.singletonList(root));
+    }
+
+    /**
+     * 只写入有变化的文件：已有文件内容（包含xml头）与生成内容一致时不再写入，保持文件修改时间不变
+     *
+     * @param skipUnchanged 是否跳过内容未变化的文件
+     */
+    public Builder skipUnchanged(boolean skipUnchanged) {
+      this.skipUnchanged = skipUnchanged;
+      return this;
+    }
+
+    /**
+     * 清理过期文件：输出目录下的生成清单记录每个Builder上次生成的文件，本次不再生成的文件会被删除
+     * 开启后skipUnchanged优先与清单中的长度和哈希比较，不再读取已有文件
+     *
+     * @param cleanStale 是否删除上次生成、本次不再生成的文件
+     */
+    public Builder cleanStale(boolean cleanStale) {
+      this.cleanStale = cleanStale;
+      return this;
+    }
+
+    /**
+     * 生成清单中区分Builder的key，默认由shape、别名和各层类型组成，不包含取值
+     * 增删取值时key不变，单独生成也能删除不再生成的文件
+     * 同一输出目录下的key必须唯一，否则会互相删除文件；shape、别名和各层类型都相同的Builder需要指定不同的key
+     *
+     * @param manifestKey 清单key，为null时使用默认key
+     */
+    public Builder manifestKey(String manifestKey) {
+      this.manifestKey = manifestKey;
+      return this;
+    }
+
+    String manifestKey() {
+      if (manifestKey != null) {
+        return manifestKey;
+      }
+      StringBuilder key = new StringBuilder(shape).append('/').append(shapeAlias).append('/');
+      for (int i = 0; i < levelTags.size(); i++) {
+        if (i != 0) {
+          key.append('+');
+        }
+        key.append(levelTags.get(i));
+      }
+      return key.toString();
+    }
+
+    /**
+     * 并行生成：按叶子序号切分成多段，并发渲染写入
+     *
+     * @param parallelism 并行度，小于等于1时单线程生成
+     */
+    public Builder parallelism(int parallelism) {
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * 使用外部线程池并行生成，线程池由调用方负责关闭
+     *
+     * @param executor 执行分段生成的线程池
+     */
+    public Builder executor(ExecutorService executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * 聚集写入：各层片段编码为只读直接缓冲，每个文件只做一次FileChannel聚集写入，不再拼接整个文件内容
+     * 适合生成数万个变体时减少内存拷贝
+     *
+     * @param gatheringWrite 是否使用聚集写入
+     */
+    public Builder gatheringWrite(boolean gatheringWrite) {
+      this.gatheringWrite = gatheringWrite;
+      return this;
+    }
+
+    /**
+     * 输出到压缩包：全部叶子写入压缩包的res/drawable/目录，不再写入输出目录
+     * 此时replace、skipUnchanged、cleanStale和gatheringWrite不生效
+     *
+     * @param archive 共享的压缩包，由调用方负责关闭
+     */
+    public Builder archive(DrawableArchive archive) {
+      this.archive = archive;
+      return this;
+    }
+
+    /**
+     * 直接输出aapt2编译后的.flat文件到compiledDir，链接时不需要再执行aapt2 compile
+     * 输出目录只用于确定资源类型（目录名，不支持带限定符）和记录源文件路径，不写入xml
+     * 开启cleanStale时生成清单保存在compiledDir，按资源类型区分分组，删除不再生成的.flat文件
+     * 此时gatheringWrite和pipeline不生效，输出到压缩包时不使用
+     *
+     * @param compiledDir .flat文件输出目录，为null时输出xml
+     */
+    public Builder compiledOutput(File compiledDir) {
+      this.compiledDir = compiledDir;
+      return this;
+    }
+
+    /**
+     * 生成前校验：各层片段引用的@color/@dimen必须存在于资源索引中，否则不写入任何文件，结果中一次列出全部缺失的引用
+     *
+     * @param resourceIndex values资源索引，为null时不校验
+     */
+    public Builder validate(ResourceIndex resourceIndex) {
+      this.resourceIndex = resourceIndex;
+      return this;
+    }
+
+    /**
+     * 在当前最后一层添加排除条件：遍历时每选定到这一层就判断一次，被排除的组合不再展开后续各层，对应的叶子都不会生成
+     *
+     * 例如在addStroke之后添加条件，按取值下标排除线条颜色与填充色相同的组合
+     *
+     * @param constraint 排除条件
+     */
+    public Builder exclude(OnExcludeCombination constraint) {
+      int depth = levels.size() - 1;
+      while (constraints.size() <= depth) {
+        constraints.add(null);
+      }
+      List<OnExcludeCombination> levelConstraints = constraints.get(depth);
+      if (levelConstraints == null) {
+        levelConstraints = new ArrayList<>();
+        constraints.set(depth, levelConstraints);
+      }
+      levelConstraints.add(constraint);
+      return this;
+    }
+
+    /**
+     * 使用跨多次生成共享的缓存：聚集写入的片段缓冲和输出目录的生成清单优先从缓存读取
+     *
+     * @param cache 共享缓存，为null时不使用
+     */
+    public Builder cache(GenerationCache cache) {
+      this.cache = cache;
+      return this;
+    }
+
+    /**
+     * 流水线生成：遍历渲染与写入分离，当前线程渲染叶子到固定数量的缓冲中，独立的写入线程池检查已有文件并写入
+     * 两者之间的队列有上限，写入跟不上时渲染等待，内存占用与叶子数量无关
+     * 此时parallelism、executor和gatheringWrite不生效，输出到压缩包时不使用流水线
+     *
+     * @param writerThreads 写入线程数量，小于等于0时不使用流水线
+     * @param queueCapacity 等待写入的叶子数量上限
+     */
+    public Builder pipeline(int writerThreads, int queueCapacity) {
+      if (writerThreads > 0 && queueCapacity <= 0) {
+        throw new IllegalArgumentException("queueCapacity必须大于0:" + queueCapacity);
+      }
+      this.pipelineWriters = writerThreads;
+      this.pipelineCapacity = queueCapacity;
+      return this;
+    }
+
+    /**
+     * 组合数量上限：各层取值数量的乘积超过上限时生成直接失败，不做任何校验、渲染和写入
+     *
+     * @param maxLeaves 组合数量上限，小于等于0时不限制
+     */
+    public Builder maxLeaves(long maxLeaves) {
+      this.maxLeaves = maxLeaves;
+      return this;
+    }
+
+    /**
+     * 生成索引类：各轴取值下标常量和get(...)方法，按下标直接查表得到R.drawable，代替拼接名称和getIdentifier
+     * 内容不变时不重写，分片生成时只由起始分片写入
+     *
+     * @param sourceDir java源码根目录，为null时不生成
+     * @param className 索引类的完整类名，如com.example.RectangleDrawables
+     * @param rClassName R类的完整类名，如com.example.R
+     */
+    public Builder indexClass(File sourceDir, String className, String rClassName) {
+      this.indexSourceDir = sourceDir;
+      this.indexClassName = className;
+      this.rClassName = rClassName;
+      return this;
+    }
+
+    /**
+     * 状态选择器添加一层状态：每个item为source的一个叶子，如state_pressed的item在按下时显示
+     * 选择器按顺序匹配，带状态的层需要在{@link #addDefault(Builder)}之前添加
+     *
+     * @param state 状态属性，如state_pressed、state_selected
+     * @param source 被引用的Builder，其叶子需要另外生成
+     */
+    public Builder addState(final String state, Builder source) {
+      requireComposite(SELECTOR);
+      final String prefix = state.startsWith("state_") ? state.substring("state_".length()) : state;
+      return addLevel(state, new SourceLevel(source) {
+        @Override
+        DrawableNode createNode(String name) {
+          return new DrawableNode(prefix + "_" + name,
+              STATE_ITEM.render(state, formatResource(TYPE_DRAWABLE, name)));
+        }
+      });
+    }
+
+    /**
+     * 状态选择器添加默认状态：不带状态的item，需要最后添加
+     */
+    public Builder addDefault(Builder source) {
+      requireComposite(SELECTOR);
+      return addItemLevel("item", source);
+    }
+
+    /**
+     * 图层列表添加一层图层，先添加的图层在下方
+     */
+    public Builder addLayer(Builder source) {
+      requireComposite(LAYER_LIST);
+      return addItemLevel("layer", source);
+    }
+
+    private Builder addItemLevel(String tag, Builder source) {
+      return addLevel(tag, new SourceLevel(source) {
+        @Override
+        DrawableNode createNode(String name) {
+          return new DrawableNode(name, ITEM.render(formatResource(TYPE_DRAWABLE, name)));
+        }
+      });
+    }
+
+    private void requireComposite(String composite) {
+      if (!composite.equals(shape) || end == SHAPE_END) {
+        throw new IllegalStateException("只有" + composite + "类型的Builder可以添加该层:" + shapeAlias);
+      }
+    }
+
+    /**
+     * shape的子节点只能添加到shape类型的Builder，组合Builder中会生成aapt无法链接的xml
+     */
+    private void requireShape() {
+      if (end != SHAPE_END) {
+        throw new IllegalStateException("只有shape类型的Builder可以添加该层:" + shapeAlias);
+      }
+    }
+
+    public Builder addNode(OnProcessResources[] resources){
+      return addNode("node", Arrays.asList(resources));
+    }
+
+    /**
+     * 添加corners圆角
+     *
+     * @param dimenIds dimen资源id数组
+     */
+    public Builder addCorners(String[] dimenIds) {
+      return addDimenLevel("corners", "corners_", CORNERS, dimenIds);
+    }
+
+    /**
+     * 添加corners圆角(只有上边Top)
+     *
+     * @param dimenIds dimen资源id数组
+     */
+    public Builder addCornersTop(String[] dimenIds) {
+      return addDimenLevel("corners_top", "corners_top_", CORNERS_TOP, dimenIds);
+    }
+
+    /**
+     * 添加corners圆角(只有底边Bottom)
+     *
+     * @param dimenIds dimen资源id数组
+     */
+    public Builder addCornersBottom(String[] dimenIds) {
+      return addDimenLevel("corners_bottom", "corners_bottom_", CORNERS_BOTTOM, dimenIds);
+    }
+
+    /**
+     * 添加corners圆角(只有左边Left)
+     *
+     * @param dimenIds dimen资源id数组
+     */
+    public Builder addCornersLeft(String[] dimenIds) {
+      return addDimenLevel("corners_left", "corners_left_", CORNERS_LEFT, dimenIds);
+    }
+
+    /**
+     * 添加corners圆角(只有右边Right)
+     *
+     * @param dimenIds dimen资源id数组
+     */
+    public Builder addCornersRight(String[] dimenIds) {
+      return addDimenLevel("corners_right", "corners_right_", CORNERS_RIGHT, dimenIds);
+    }
+
+    /**
+     * 添加solid填充色
+     *
+     * @param colorIds color资源颜色id数组
+     */
+    public Builder addSolid(String[] colorIds) {
+      requireShape();
+      List<DrawableNode> levelNodes = new ArrayList<>(colorIds.length);
+      for (String colorId : colorIds) {
+        levelNodes.add(new DrawableNode("solid_" + colorId.toLowerCase(),
+            SOLID.render(formatResource(TYPE_COLOR, colorId))));
+      }
+      return addLevel("solid", levelNodes);
+    }
+
+    /**
+     * 添加size大小
+     *
+     * @param dimenIds dimen资源id数组
+     */
+    public Builder addSize(String[] dimenIds) {
+      return addDimenLevel("size", "size_", SIZE, dimenIds);
+    }
+
+    /**
+     * 添加stroke线条
+     *
+     * @param dimenIds dimen资源id数组
+     * @param colorIds color资源颜色id数组
+     */
+    public Builder addStroke(String[] dimenIds, String[] colorIds) {
+      requireShape();
+      List<DrawableNode> levelNodes = new ArrayList<>(dimenIds.length * colorIds.length);
+      for (String dimenId : dimenIds) {
+        for (String colorId : colorIds) {
+          levelNodes.add(new DrawableNode(
+              "stroke_" + dimenId.toLowerCase() + "_" + colorId.toLowerCase(),
+              STROKE.render(formatResource(TYPE_DIMEN, dimenId),
+                  formatResource(TYPE_COLOR, colorId))));
+        }
+      }
+      return addLevel("stroke", levelNodes);
     }
 
-    return fileSum;
-  }
-
-
-  static final class Builder {
-
-    private File outDir;
-    private boolean replace;
-
-    private String shapeAlias;
-
-    private DrawableNode rootNode;
-    private List<DrawableNode> curLevelNodes;
+    private Builder close() {
+      if (closed) {
+        return this;
+      }
+      closed = true;
+      return addLevel(null, Collections.singletonList(new DrawableNode(null, end)));
+    }
 
     /**
-     * @param outDir 输出目录
-     * @param replace 是否替换已经存在的drawable
-     * @param shape android:shape="形状"
-     * @param shapeAlias 形状别名
+     * 叶子总数，即各层取值数量的乘积，不需要遍历；包含被排除条件排除的叶子
+     *
+     * 叶子序号由add顺序和取值顺序唯一确定：最后添加的一层变化最快，与生成顺序一致
      */
-    Builder(File outDir, boolean replace, String shape, String shapeAlias) {
-      this.outDir = outDir;
-      this.replace = replace;
-
-      this.shapeAlias = shapeAlias.isEmpty() ? shape : shapeAlias;
-      String rootContent = String
-          .format("<shape xmlns:android=\"http://schemas.android.com/apk/res/android\"\n"
-              + "  android:shape=\"%s\">", shape);
-      rootNode = new DrawableNode(shapeAlias, rootContent);
-      curLevelNodes = Collections.singletonList(rootNode);
+    public long leafCount() {
+      return LeafCursor.leafCount(levels);
     }
 
-    public Builder addNode(OnProcessResources[] resources){
-      return addNode(Arrays.asList(resources));
+    /**
+     * 序号对应的叶子文件名（不含后缀），直接按混合进制定位，不需要遍历之前的叶子
+     *
+     * @param ordinal 叶子序号，范围[0, leafCount())
+     * @return 文件名，被排除条件排除时为null
+     */
+    public String leafName(long ordinal) {
+      if (ordinal < 0 || ordinal >= leafCount()) {
+        throw new IndexOutOfBoundsException("叶子序号" + ordinal + "超出范围[0, " + leafCount() + ")");
+      }
+      LeafCursor cursor = new LeafCursor(levels, constraints, ordinal, ordinal + 1);
+      return cursor.next() ? cursor.name() : null;
     }
 
     /**
-     * 添加corners圆角
-     *
-     * @param dimenIds dimen资源id数组
+     * 规划生成：计算将生成的叶子数量和总字节数，只使用各层片段长度，不渲染、不写入
+     * 没有排除条件时直接由各层片段长度和出现次数计算；有排除条件时遍历组合累计长度
+     * 有排除条件且组合数量超过maxLeaves时不遍历，按不排除计算上限，生成时同样会直接失败
+     * 组合数量或字节数超出long范围时为Long.MAX_VALUE，视为超过任何上限
      */
-    public Builder addCorners(String[] dimenIds) {
-      List<OnProcessResources> onProcessResources = new ArrayList<>(dimenIds.length);
-      for (final String resId : dimenIds) {
-        onProcessResources.add(new OnProcessResources() {
-          @Override
-          public String onProcessName() {
-            return String.format("corners_%s", resId.toLowerCase());
-          }
+    public GenerationPlan plan() {
+      long combinations = leafCount();
+      //未添加结束节点时，每个叶子还包含换行和结束节点
+      long closeLength = closed ? 0 : 1 + end.length;
+      int nodes = LeafCursor.nodeCount(levels) + (closed ? 0 : 1);
+      if (combinations == 0) {
+        return new GenerationPlan(shapeAlias, nodes, 0, 0, 0, true);
+      }
+      if (combinations == LeafCursor.OVERFLOW) {
+        return new GenerationPlan(shapeAlias, nodes, combinations, combinations, Long.MAX_VALUE,
+            false);
+      }
+      if (constraints.isEmpty()) {
+        return new GenerationPlan(shapeAlias, nodes, combinations, combinations,
+            totalBytes(combinations, closeLength), true);
+      }
+      if (maxLeaves > 0 && combinations > maxLeaves) {
+        return new GenerationPlan(shapeAlias, nodes, combinations, combinations,
+            totalBytes(combinations, closeLength), false);
+      }
 
-          @Override
-          public String onProcessContent() {
-            return String
-                .format("\t<corners android:radius=\"%s\" />", formatResource(TYPE_DIMEN, resId));
+      long leaves = 0;
+      long bytes = 0;
+      LeafCursor cursor = new LeafCursor(levels, constraints, 0, combinations);
+      while (cursor.next()) {
+        leaves++;
+        if (bytes != Long.MAX_VALUE) {
+          try {
+            bytes = Math.addExact(bytes, cursor.length() + closeLength);
+          } catch (ArithmeticException e) {
+            bytes = Long.MAX_VALUE;
           }
-        });
+        }
       }
-      return addNode(onProcessResources);
+      return new GenerationPlan(shapeAlias, nodes, combinations, leaves, bytes, true);
     }
 
     /**
-     * 添加corners圆角(只有上边Top)
-     *
-     * @param dimenIds dimen资源id数组
+     * @return 不排除任何组合时全部叶子的总字节数，超出long范围时为Long.MAX_VALUE
      */
-    public Builder addCornersTop(String[] dimenIds) {
-      List<OnProcessResources> onProcessResources = new ArrayList<>(dimenIds.length);
-      for (final String resId : dimenIds) {
-        onProcessResources.add(new OnProcessResources() {
-          @Override
-          public String onProcessName() {
-            return String.format("corners_top_%s", resId.toLowerCase());
-          }
-
-          @Override
-          public String onProcessContent() {
-            return String
-                .format("\t<corners\n"
-                        + "    android:topLeftRadius=\"%s\"\n"
-                        + "    android:topRightRadius=\"%s\" />",
-                    formatResource(TYPE_DIMEN, resId),
-                    formatResource(TYPE_DIMEN, resId));
+    private long totalBytes(long combinations, long closeLength) {
+      try {
+        long bytes = Math.multiplyExact(combinations,
+            HEAD.length + levels.size() - 1 + closeLength);
+        for (List<DrawableNode> level : levels) {
+          long repeat = combinations / level.size();
+          for (DrawableNode node : level) {
+            bytes = Math.addExact(bytes, Math.multiplyExact(node.content.length, repeat));
           }
-        });
+        }
+        return bytes;
+      } catch (ArithmeticException e) {
+        return Long.MAX_VALUE;
       }
-      return addNode(onProcessResources);
     }
 
     /**
-     * 添加corners圆角(只有底边Bottom)
+     * 分片生成：只生成叶子序号区间[from, to)内的文件，各分片可以在不同进程中独立执行，不需要互相协调
      *
-     * @param dimenIds dimen资源id数组
+     * 分片生成时cleanStale只用于比较已有文件，不提交生成清单、不删除过期文件
+     *
+     * @param from 起始叶子序号（包含）
+     * @param to 结束叶子序号（不包含）
+     * @return 生成结果，失败时不抛出，错误记录在结果中
      */
-    public Builder addCornersBottom(String[] dimenIds) {
-      List<OnProcessResources> onProcessResources = new ArrayList<>(dimenIds.length);
-      for (final String resId : dimenIds) {
-        onProcessResources.add(new OnProcessResources() {
-          @Override
-          public String onProcessName() {
-            return String.format("corners_bottom_%s", resId.toLowerCase());
-          }
-
-          @Override
-          public String onProcessContent() {
-            return String
-                .format("\t<corners\n"
-                        + "    android:bottomLeftRadius=\"%s\"\n"
-                        + "    android:bottomRightRadius=\"%s\" />",
-                    formatResource(TYPE_DIMEN, resId),
-                    formatResource(TYPE_DIMEN, resId));
-          }
-        });
+    public GenerationResult buildRange(long from, long to) {
+      DrawableGenerate generate = create(this);
+      generate.range(from, to);
+      try {
+        return generate.generate();
+      } catch (IOException e) {
+        return generate.failed(e);
       }
-      return addNode(onProcessResources);
     }
 
     /**
-     * 添加corners圆角(只有左边Left)
+     * 构造各种参数配置的多个drawable
      *
-     * @param dimenIds dimen资源id数组
+     * @return 生成结果，失败时不抛出，错误记录在结果中
      */
-    public Builder addCornersLeft(String[] dimenIds) {
-      List<OnProcessResources> onProcessResources = new ArrayList<>(dimenIds.length);
-      for (final String resId : dimenIds) {
-        onProcessResources.add(new OnProcessResources() {
-          @Override
-          public String onProcessName() {
-            return String.format("corners_left_%s", resId.toLowerCase());
-          }
+    public GenerationResult build() {
 
-          @Override
-          public String onProcessContent() {
-            return String
-                .format("\t<corners\n"
-                        + "    android:bottomLeftRadius=\"%s\"\n"
-                        + "    android:topLeftRadius=\"%s\" />",
-                    formatResource(TYPE_DIMEN, resId),
-                    formatResource(TYPE_DIMEN, resId));
-          }
-        });
+      try {
+        return create(this).generate();
+      } catch (IOException e) {
+        return GenerationResult.failed(shapeAlias, outDir.getPath(), e);
       }
-      return addNode(onProcessResources);
+    }
 
+    /**
+     * 添加一层自定义节点，每个处理只调用一次，内容编码为UTF-8后记录
+     */
+    private Builder addNode(String tag, List<OnProcessResources> onProcessResources) {
+      requireShape();
+      List<DrawableNode> levelNodes = new ArrayList<>(onProcessResources.size());
+      for (OnProcessResources process : onProcessResources) {
+        levelNodes.add(process instanceof OnPureProcessResources
+            ? pureNode((OnPureProcessResources) process) : processNode(process));
+      }
+      return addLevel(tag, levelNodes);
     }
 
     /**
-     * 添加corners圆角(只有左边Left)
-     *
-     * @param dimenIds dimen资源id数组
+     * 纯处理在本Builder中只调用一次，之后直接共享缓存的片段
      */
-    public Builder addCornersRight(String[] dimenIds) {
-      List<OnProcessResources> onProcessResources = new ArrayList<>(dimenIds.length);
-      for (final String resId : dimenIds) {
-        onProcessResources.add(new OnProcessResources() {
-          @Override
-          public String onProcessName() {
-            return String.format("corners_right_%s", resId.toLowerCase());
-          }
+    private DrawableNode pureNode(OnPureProcessResources process) {
+      DrawableNode node = pureNodes.get(process);
+      if (node == null) {
+        node = processNode(process);
+        pureNodes.put(process, node);
+      }
+      return node;
+    }
 
-          @Override
-          public String onProcessContent() {
-            return String
-                .format("\t<corners\n"
-                        + "    android:bottomRightRadius=\"%s\"\n"
-                        + "    android:topRightRadius=\"%s\" />",
-                    formatResource(TYPE_DIMEN, resId),
-                    formatResource(TYPE_DIMEN, resId));
-          }
-        });
+    /**
+     * 调用处理得到片段，内容相同的片段共享编码结果
+     */
+    private DrawableNode processNode(OnProcessResources process) {
+      String name = process.onProcessName();
+      String content = process.onProcessContent();
+      byte[] bytes = contents.get(content);
+      if (bytes == null) {
+        bytes = content.getBytes(FragmentTemplate.UTF_8);
+        contents.put(content, bytes);
       }
-      return addNode(onProcessResources);
+      return new DrawableNode(name, bytes);
+    }
 
+    /**
+     * 添加只有一个dimen参数的一层节点，模板中每个占位都填入同一个dimen
+     */
+    private Builder addDimenLevel(String tag, String namePrefix, FragmentTemplate template,
+        String[] dimenIds) {
+      requireShape();
+      List<DrawableNode> levelNodes = new ArrayList<>(dimenIds.length);
+      for (String dimenId : dimenIds) {
+        levelNodes.add(new DrawableNode(namePrefix + dimenId.toLowerCase(),
+            template.renderRepeated(formatResource(TYPE_DIMEN, dimenId))));
+      }
+      return addLevel(tag, levelNodes);
     }
 
     /**
-     * 添加solid填充色
+     * 添加一层节点：只记录本层片段，不与上一层做笛卡尔积展开
      *
-     * @param colorIds color资源颜色id数组
+     * @param tag 本层类型，用于区分生成清单中的Builder，为null时不记录
      */
-    public Builder addSolid(String[] colorIds) {
+    private Builder addLevel(String tag, List<DrawableNode> levelNodes) {
+      if (tag != null) {
+        levelTags.add(tag);
+      }
+      levels.add(levelNodes);
+      return this;
+    }
 
-      List<OnProcessResources> onProcessResources = new ArrayList<>(colorIds.length);
-      for (final String resId : colorIds) {
-        onProcessResources.add(new OnProcessResources() {
-          @Override
-          public String onProcessName() {
-            return String.format("solid_%s", resId.toLowerCase());
-          }
+  }
 
-          @Override
-          public String onProcessContent() {
-            return String
-                .format("\t<solid android:color=\"%s\" />", formatResource(TYPE_COLOR, resId));
-          }
-        });
-      }
-      return addNode(onProcessResources);
+  /**
+   * 组合Builder的一层：每个片段引用source的一个叶子，添加时不展开source的叶子
+   *
+   * 第一次使用时才确定片段数量，source有排除条件时遍历一次，只记录保留叶子的序号；
+   * 片段在访问到时按序号定位叶子名称后创建，分片生成只创建用到的片段。source在生成前不要再修改
+   */
+  private abstract static class SourceLevel extends AbstractList<DrawableNode>
+      implements RandomAccess {
 
+    private final Builder source;
+    private volatile Resolved resolved;
+
+    SourceLevel(Builder source) {
+      this.source = source;
     }
 
     /**
-     * 添加size大小
-     *
-     * @param dimenIds dimen资源id数组
+     * @param name 被引用叶子的文件名
      */
-    public Builder addSize(String[] dimenIds) {
+    abstract DrawableNode createNode(String name);
+
+    @Override
+    public DrawableNode get(int index) {
+      Resolved resolved = resolve();
+      DrawableNode node = resolved.nodes.get(index);
+      if (node == null) {
+        long ordinal = resolved.ordinals != null ? resolved.ordinals[index] : index;
+        node = createNode(source.leafName(ordinal));
+        //并发创建时保留先写入的片段，同一下标始终是同一个对象
+        if (!resolved.nodes.compareAndSet(index, null, node)) {
+          node = resolved.nodes.get(index);
+        }
+      }
+      return node;
+    }
 
-      List<OnProcessResources> onProcessResources = new ArrayList<>(dimenIds.length);
-      for (final String resId : dimenIds) {
-        onProcessResources.add(new OnProcessResources() {
-          @Override
-          public String onProcessName() {
-            return String.format("size_%s", resId.toLowerCase());
-          }
+    @Override
+    public int size() {
+      return resolve().nodes.length();
+    }
 
-          @Override
-          public String onProcessContent() {
-            return String
-                .format("\t<size\n"
-                        + "    android:height=\"%s\"\n"
-                        + "    android:width=\"%s\" />",
-                    formatResource(TYPE_DIMEN, resId),
-                    formatResource(TYPE_DIMEN, resId)
-                );
-          }
-        });
+    private Resolved resolve() {
+      Resolved resolved = this.resolved;
+      if (resolved != null) {
+        return resolved;
+      }
+      synchronized (this) {
+        if (this.resolved == null) {
+          this.resolved = source.constraints.isEmpty()
+              ? new Resolved(null, toSize(source.leafCount())) : resolveExcluded();
+        }
+        return this.resolved;
+      }
+    }
+
+    private Resolved resolveExcluded() {
+      long[] ordinals = new long[16];
+      int size = 0;
+      LeafCursor cursor = new LeafCursor(source.levels, source.constraints, 0,
+          source.leafCount());
+      while (cursor.next()) {
+        if (size == ordinals.length) {
+          ordinals = Arrays.copyOf(ordinals, (int) Math.min(size * 2L, Integer.MAX_VALUE));
+        }
+        ordinals[size++] = cursor.ordinal();
+      }
+      return new Resolved(Arrays.copyOf(ordinals, size), size);
+    }
+
+    private int toSize(long leafCount) {
+      if (leafCount > Integer.MAX_VALUE) {
+        throw new IllegalStateException("被引用的" + source.shapeAlias + "叶子数量" + leafCount
+            + "超过一层的上限" + Integer.MAX_VALUE);
+      }
+      return (int) leafCount;
+    }
+
+    private static final class Resolved {
+
+      /**
+       * 各片段对应的source叶子序号，没有排除条件时为null，序号即下标
+       */
+      final long[] ordinals;
+      final AtomicReferenceArray<DrawableNode> nodes;
+
+      Resolved(long[] ordinals, int size) {
+        this.ordinals = ordinals;
+        this.nodes = new AtomicReferenceArray<>(size);
       }
-      return addNode(onProcessResources);
+    }
+  }
+
+  /**
+   * 单层片段：只包含本层的名称和内容，完整叶子在遍历时拼接
+   */
+  public static class DrawableNode {
+
+    String name;
+    /**
+     * UTF-8编码的片段内容，生成叶子时直接拷贝
+     */
+    byte[] content;
 
+    DrawableNode(String name, byte[] content) {
+      this.name = name;
+      this.content = content;
     }
+  }
 
+  /**
+   * 叶子游标：以混合进制计数器遍历各层片段的组合，最后一层变化最快，顺序与原多叉树叶子顺序一致
+   *
+   * 有排除条件时，某层被排除的前缀直接跳过其下全部叶子的序号，序号与叶子的对应关系不受排除条件影响
+   */
+  static final class LeafCursor {
+
+    private final List<List<DrawableNode>> levels;
+    private final int[] indexes;
+    private boolean started;
+    private long ordinal;
+    private final long to;
 
     /**
-     * 添加stroke线条
-     *
-     * @param dimenIds dimen资源id数组
-     * @param colorIds color资源颜色id数组
+     * 各层的排除条件，没有任何条件时为null
      */
-    public Builder addStroke(String[] dimenIds, String[] colorIds) {
+    private final OnExcludeCombination[][] constraints;
+    /**
+     * 每层下标加一对应的叶子序号跨度
+     */
+    private long[] strides;
+    /**
+     * 已选定的各层片段名称，传给排除条件
+     */
+    private String[] names;
+    /**
+     * 小于该层的排除条件对当前前缀已经判断通过，不需要重复判断
+     */
+    private int validDepth;
+    private long pruned;
 
-      List<OnProcessResources> onProcessResources = new ArrayList<>(
-          dimenIds.length * colorIds.length);
-      for (final String dimenId : dimenIds) {
-        for (final String colorId : colorIds) {
-          onProcessResources.add(new OnProcessResources() {
-            @Override
-            public String onProcessName() {
-              return String.format("stroke_%s_%s", dimenId.toLowerCase(), colorId.toLowerCase());
-            }
+    private final StringBuilder nameBuilder = new StringBuilder();
 
-            @Override
-            public String onProcessContent() {
-              return String.format("\t<stroke\n"
-                      + "    android:width=\"%s\"\n"
-                      + "    android:color=\"%s\" />",
-                  formatResource(TYPE_DIMEN, dimenId),
-                  formatResource(TYPE_COLOR, colorId)
-              );
-            }
-          });
-        }
-      }
-      return addNode(onProcessResources);
+    /**
+     * 叶子总数超出long范围
+     */
+    static final long OVERFLOW = Long.MAX_VALUE;
 
+    LeafCursor(List<List<DrawableNode>> levels) {
+      this(levels, 0, leafCount(levels));
     }
 
-    private Builder close() {
+    /**
+     * @param from 起始叶子序号（包含）
+     * @param to 结束叶子序号（不包含）
+     */
+    LeafCursor(List<List<DrawableNode>> levels, long from, long to) {
+      this(levels, null, from, to);
+    }
 
-      return addNode(Collections.singletonList(new OnProcessResources() {
-        @Override
-        public String onProcessName() {
-          return null;
+    /**
+     * @param constraints 按层的排除条件，可以为null
+     * @param from 起始叶子序号（包含）
+     * @param to 结束叶子序号（不包含）
+     */
+    LeafCursor(List<List<DrawableNode>> levels, List<List<OnExcludeCombination>> constraints,
+        long from, long to) {
+      this.levels = levels;
+      this.indexes = new int[levels.size()];
+      this.ordinal = from;
+      this.to = to;
+      this.constraints = toArray(constraints, indexes.length);
+
+      //序号按混合进制拆分到各层下标，最后一层为最低位
+      long rest = from;
+      for (int depth = indexes.length - 1; depth >= 0 && from < to; depth--) {
+        int size = levels.get(depth).size();
+        indexes[depth] = (int) (rest % size);
+        rest /= size;
+      }
+
+      if (this.constraints != null) {
+        strides = new long[indexes.length];
+        long stride = 1;
+        for (int depth = indexes.length - 1; depth >= 0; depth--) {
+          strides[depth] = stride;
+          stride *= levels.get(depth).size();
         }
+        names = new String[indexes.length];
+      }
+    }
 
-        @Override
-        public String onProcessContent() {
-          return "</shape>";
+    private static OnExcludeCombination[][] toArray(
+        List<List<OnExcludeCombination>> constraints, int depthCount) {
+      if (constraints == null || constraints.isEmpty()) {
+        return null;
+      }
+      OnExcludeCombination[][] array = new OnExcludeCombination[depthCount][];
+      for (int depth = 0; depth < constraints.size() && depth < depthCount; depth++) {
+        List<OnExcludeCombination> levelConstraints = constraints.get(depth);
+        if (levelConstraints != null) {
+          array[depth] = levelConstraints.toArray(new OnExcludeCombination[0]);
         }
-      }));
+      }
+      return array;
     }
 
     /**
-     * 构造各种参数配置的多个drawable
+     * @return 各层片段数量之和，即创建的节点数量
      */
-    public String build() {
+    static int nodeCount(List<List<DrawableNode>> levels) {
+      int count = 0;
+      for (List<DrawableNode> level : levels) {
+        count += level.size();
+      }
+      return count;
+    }
 
-      String msg;
+    /**
+     * @return 各层片段数量的乘积，即叶子总数；超出long范围时为{@link #OVERFLOW}，视为超过任何上限
+     */
+    static long leafCount(List<List<DrawableNode>> levels) {
+      if (levels.isEmpty()) {
+        return 0;
+      }
+      long count = 1;
       try {
-        DrawableGenerate drawableGenerate = new DrawableGenerate(close());
-        int sum = drawableGenerate.generate();
-        msg = String.format(Locale.CHINA, "生成%d个%s类型drawable文件", sum, shapeAlias);
-      } catch (IOException e) {
-        msg = "生成drawable文件失败:" + e.toString();
+        for (List<DrawableNode> level : levels) {
+          count = Math.multiplyExact(count, level.size());
+        }
+      } catch (ArithmeticException e) {
+        return OVERFLOW;
+      }
+      return count;
+    }
+
+    /**
+     * 移动到下一个叶子
+     *
+     * @return false 表示已经遍历完毕
+     */
+    boolean next() {
+      if (!started) {
+        started = true;
+      } else if (ordinal < to) {
+        ordinal++;
+        if (ordinal < to) {
+          increment(indexes.length - 1);
+        }
       }
-      return msg;
+      if (ordinal >= to) {
+        return false;
+      }
+      return constraints == null || skipExcluded();
     }
 
-    private Builder addNode(List<OnProcessResources> onProcessResources) {
+    /**
+     * @return 被排除条件跳过的叶子数量
+     */
+    long pruned() {
+      return pruned;
+    }
 
-      List<DrawableNode> newCurLevelNodes = new ArrayList<>();
-      for (DrawableNode curDepthNode : curLevelNodes) {
-        for (OnProcessResources process : onProcessResources) {
-          String childName = appendFileNameOrEmpty(curDepthNode.name, process.onProcessName());
-          String childContent = appendContent(curDepthNode.content,
-              process.onProcessContent());
+    /**
+     * @return 当前叶子的序号
+     */
+    long ordinal() {
+      return ordinal;
+    }
 
-          DrawableNode childNode = new DrawableNode(childName, childContent);
+    /**
+     * 从某层开始进位加一，调用方保证不会超出叶子总数
+     */
+    private void increment(int depth) {
+      for (; depth >= 0; depth--) {
+        if (++indexes[depth] < levels.get(depth).size()) {
+          break;
+        }
+        indexes[depth] = 0;
+      }
+      validDepth = Math.min(validDepth, depth);
+    }
 
-          curDepthNode.addChildNode(childNode);
-          newCurLevelNodes.add(childNode);
+    /**
+     * 当前前缀被排除时跳到下一个前缀，直到找到未被排除的叶子
+     *
+     * @return false 表示区间内已没有叶子
+     */
+    private boolean skipExcluded() {
+      int depth;
+      while ((depth = excludedDepth()) >= 0) {
+        long stride = strides[depth];
+        long next = (ordinal / stride + 1) * stride;
+        pruned += Math.min(next, to) - ordinal;
+        ordinal = next;
+        if (ordinal >= to) {
+          return false;
         }
+        Arrays.fill(indexes, depth + 1, indexes.length, 0);
+        increment(depth);
       }
+      return true;
+    }
 
-      this.curLevelNodes = newCurLevelNodes;
-      return this;
+    /**
+     * @return 当前叶子最浅的被排除的层，未被排除时为-1
+     */
+    private int excludedDepth() {
+      for (int depth = validDepth; depth < indexes.length; depth++) {
+        names[depth] = levels.get(depth).get(indexes[depth]).name;
+        OnExcludeCombination[] levelConstraints = constraints[depth];
+        if (levelConstraints != null) {
+          for (OnExcludeCombination constraint : levelConstraints) {
+            if (constraint.onExclude(names, indexes, depth)) {
+              validDepth = depth;
+              return depth;
+            }
+          }
+        }
+        validDepth = depth + 1;
+      }
+      return -1;
     }
 
-  }
+    String name() {
+      nameBuilder.setLength(0);
+      for (int depth = 0; depth < indexes.length; depth++) {
+        appendFileNameOrEmpty(nameBuilder, levels.get(depth).get(indexes[depth]).name);
+      }
+      return nameBuilder.toString();
+    }
 
-  public static class DrawableNode {
+    /**
+     * @return 当前叶子在某一层的片段下标
+     */
+    int index(int depth) {
+      return indexes[depth];
+    }
 
-    String name;
-    String content;
-    List<DrawableNode> childNodes;
+    /**
+     * @return 当前叶子完整内容（包含xml头）的字节长度，不需要渲染
+     */
+    long length() {
+      long length = HEAD.length + indexes.length - 1;
+      for (int depth = 0; depth < indexes.length; depth++) {
+        length += levels.get(depth).get(indexes[depth]).content.length;
+      }
+      return length;
+    }
 
-    DrawableNode(String name, String content) {
-      this.name = name;
-      this.content = content;
+    /**
+     * @return 当前叶子完整内容（包含xml头）的哈希，直接遍历各层片段计算，不需要渲染
+     */
+    long hash() {
+      long hash = ContentHash.update(ContentHash.INITIAL, HEAD);
+      for (int depth = 0; depth < indexes.length; depth++) {
+        if (depth != 0) {
+          hash = ContentHash.update(hash, (byte) '\n');
+        }
+        hash = ContentHash.update(hash, levels.get(depth).get(indexes[depth]).content);
+      }
+      return hash;
     }
 
-    void addChildNode(DrawableNode childNode){
-      if (childNodes==null){
-        childNodes=new ArrayList<>();
+    /**
+     * 把当前叶子的完整内容（包含xml头）渲染到缓冲中，各层片段以换行分隔
+     */
+    void render(LeafBuffer buffer) {
+      buffer.write(HEAD);
+      for (int depth = 0; depth < indexes.length; depth++) {
+        if (depth != 0) {
+          buffer.write((byte) '\n');
+        }
+        buffer.write(levels.get(depth).get(indexes[depth]).content);
       }
-      childNodes.add(childNode);
     }
   }
 
@@ -414,24 +1910,46 @@ public class DrawableGenerate {
     String onProcessContent();
   }
 
-  private static String appendFileNameOrEmpty(String fileName, String appendName) {
-    if (fileName == null || fileName.isEmpty()) {
-      return appendName;
-    }
+  /**
+   * 纯处理：名称和内容只由处理对象本身决定，多次调用结果相同
+   * 相同的处理（按equals，默认为同一个对象）在同一个Builder的任意层中只调用一次，结果随Builder释放
+   * 取值相同的处理对象需要实现equals和hashCode才能共享缓存
+   */
+  public interface OnPureProcessResources extends OnProcessResources {
+
+  }
+
+  /**
+   * 组合排除条件
+   */
+  public interface OnExcludeCombination {
 
+    /**
+     * 取值下标与add时传入的顺序一致，多个参数展开的层（如addStroke）按参数顺序展开，最后一个参数变化最快
+     *
+     * @param names 已选定的各层片段名称，只有0到depth层有效，第0层为shape别名；数组会被复用，不要保存
+     * @param indexes 已选定的各层取值下标，只有0到depth层有效；数组会被复用，不要保存或修改
+     * @param depth 条件所在的层
+     * @return true 排除该组合，不再展开后续各层
+     */
+    boolean onExclude(String[] names, int[] indexes, int depth);
+  }
+
+  private static void appendFileNameOrEmpty(StringBuilder fileName, String appendName) {
     if (appendName == null || appendName.isEmpty()) {
-      return fileName;
+      return;
     }
 
-    return fileName + "_" + appendName;
+    if (fileName.length() != 0) {
+      fileName.append('_');
+    }
+    fileName.append(appendName);
   }
 
-  private static String appendContent(String fileContent, String appendContent) {
-    return fileContent + '\n' + appendContent;
-  }
 
   private static final String TYPE_DIMEN = "@dimen/";
   private static final String TYPE_COLOR = "@color/";
+  private static final String TYPE_DRAWABLE = "@drawable/";
 
   private static String formatResource(String type, String value) {
     return type + value;
@@ -441,15 +1959,37 @@ public class DrawableGenerate {
     return new File(outDir, fileName + FILE_SUFFIX);
   }
 
-  private static void generateXmlFile(File outFile, byte[] outBytes) throws IOException {
+  /**
+   * 先比较文件长度，长度一致时再比较内容哈希：清单中有记录时直接使用清单哈希，否则读取已有文件计算
+   */
+  private static boolean isUnchanged(File outFile, long length, long hash,
+      GenerationManifest.Entry previous, byte[] readBuffer) throws IOException {
+    if (outFile.length() != length) {
+      return false;
+    }
+    if (previous != null && previous.matches(length, hash)) {
+      return true;
+    }
+
+    long existHash = ContentHash.INITIAL;
+    FileInputStream inputStream = new FileInputStream(outFile);
+    try {
+      int read;
+      while ((read = inputStream.read(readBuffer)) != -1) {
+        existHash = ContentHash.update(existHash, readBuffer, 0, read);
+      }
+    } finally {
+      inputStream.close();
+    }
+    return existHash == hash;
+  }
+
+  private static void generateXmlFile(File outFile, LeafBuffer buffer) throws IOException {
 
-    BufferedOutputStream outputStream = new BufferedOutputStream(
-        new FileOutputStream(outFile));
+    FileOutputStream outputStream = new FileOutputStream(outFile);
     try {
-      outputStream.write(HEAD, 0, HEAD.length);
-      outputStream.write(outBytes, 0, outBytes.length);
+      outputStream.write(buffer.array(), 0, buffer.size());
     } finally {
-      outputStream.flush();
       outputStream.close();
     }
   }
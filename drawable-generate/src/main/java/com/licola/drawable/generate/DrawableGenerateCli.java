@@ -0,0 +1,148 @@
+package com.licola.drawable.generate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 命令行入口：读取一次spec配置，规划全部Builder后一次调度生成，可作为构建前的钩子
+ * <pre>
+ * java -cp drawable-generate.jar com.licola.drawable.generate.DrawableGenerateCli drawable-spec.json
+ * java -cp drawable-generate.jar com.licola.drawable.generate.DrawableGenerateCli drawable-spec.json 0/4
+ * </pre>
+ * 第二个参数为分片"下标/数量"，每个进程只生成各Builder叶子序号的一段，不清理过期文件
+ * 有文件生成失败或资源校验失败时退出码为1，配置错误时为2
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+public final class DrawableGenerateCli {
+
+  /**
+   * 资源索引的缓存文件，放在输出目录下，以.开头不会被当作资源编译
+   */
+  private static final String INDEX_CACHE_FILE = ".drawable-generate-index";
+
+  private DrawableGenerateCli() {
+  }
+
+  public static void main(String[] args) {
+    int shardIndex = 0;
+    int shardCount = 1;
+    if (args.length == 2) {
+      String[] shard = args[1].split("/");
+      try {
+        shardIndex = Integer.parseInt(shard[0]);
+        shardCount = shard.length == 2 ? Integer.parseInt(shard[1]) : -1;
+      } catch (NumberFormatException e) {
+        shardCount = -1;
+      }
+    }
+    if (args.length < 1 || args.length > 2 || shardCount <= 0
+        || shardIndex < 0 || shardIndex >= shardCount) {
+      System.err.println("用法: DrawableGenerateCli <spec.json> [分片下标/分片数量]");
+      System.exit(2);
+      return;
+    }
+    System.exit(run(new File(args[0]), shardIndex, shardCount));
+  }
+
+  /**
+   * @return 退出码
+   */
+  static int run(File specFile) {
+    return run(specFile, 0, 1);
+  }
+
+  /**
+   * @param shardIndex 分片下标
+   * @param shardCount 分片数量，为1时生成全部
+   * @return 退出码
+   */
+  static int run(File specFile, int shardIndex, int shardCount) {
+    long start = System.nanoTime();
+
+    DrawableSpec spec;
+    try {
+      spec = DrawableSpec.parse(specFile);
+    } catch (IOException | IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      return 2;
+    }
+
+    if (shardCount > 1 && spec.getArchive() != null) {
+      System.err.println("输出到压缩包时不支持分片生成");
+      return 2;
+    }
+
+    if (!spec.getOutDir().isDirectory() && !spec.getOutDir().mkdirs()) {
+      System.err.println("无法创建输出目录:" + spec.getOutDir());
+      return 2;
+    }
+
+    DrawableArchive archive = null;
+    List<GenerationResult> results;
+    try {
+      List<DrawableGenerate.Builder> builders;
+      try {
+        builders = spec.newBuilders();
+      } catch (IllegalArgumentException e) {
+        System.err.println(e.getMessage());
+        return 2;
+      }
+      if (!spec.getValuesDirs().isEmpty()) {
+        ResourceIndex index;
+        try {
+          index = ResourceIndex.loadDirs(spec.getValuesDirs(),
+              new File(spec.getOutDir(), INDEX_CACHE_FILE));
+        } catch (IOException e) {
+          System.err.println(e.getMessage());
+          return 2;
+        }
+        for (DrawableGenerate.Builder builder : builders) {
+          builder.validate(index);
+        }
+      }
+      if (spec.getArchive() != null) {
+        archive = new DrawableArchive(spec.getArchive());
+        for (DrawableGenerate.Builder builder : builders) {
+          builder.archive(archive);
+        }
+      }
+      DrawableBatch batch = new DrawableBatch(spec.getParallelism()).addAll(builders);
+      if (shardCount > 1) {
+        batch.shard(shardIndex, shardCount);
+      }
+      //配置即输出目录的全部shape，已移除的shape遗留的文件一起清理
+      batch.cleanStaleOwners(spec.isCleanStale() && shardCount == 1);
+      if (spec.getAliasValues() != null) {
+        batch.dedup(spec.getAliasValues());
+      }
+      results = batch.run();
+    } catch (IOException e) {
+      System.err.println("生成drawable文件失败:" + e);
+      return 1;
+    } finally {
+      if (archive != null) {
+        try {
+          archive.close();
+        } catch (IOException e) {
+          System.err.println("无法关闭压缩包:" + e);
+        }
+      }
+    }
+
+    int exitCode = 0;
+    for (GenerationResult result : results) {
+      if (result.isSuccess()) {
+        System.out.println(result.getMessage());
+      } else {
+        System.err.println(result.getMessage());
+        exitCode = 1;
+      }
+    }
+    System.out.println("耗时" + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+    return exitCode;
+  }
+}
@@ -0,0 +1,225 @@
+package com.licola.drawable.generate;
+
+import com.licola.drawable.generate.DrawableGenerate.DrawableNode;
+import com.licola.drawable.generate.DrawableGenerate.LeafCursor;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 生成drawable索引类：各轴取值下标按混合进制换算为叶子序号，直接查表得到R.drawable，不需要拼接名称和getIdentifier
+ *
+ * <pre>
+ * int id = RectangleDrawables.get(RectangleDrawables.CORNERS_X1DP, RectangleDrawables.SOLID_ORANGE);
+ * </pre>
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+final class DrawableIndexWriter {
+
+  /**
+   * 每个R.drawable引用在常量池中占多个条目，超过该数量时单个类会超出常量池上限
+   */
+  static final int MAX_LEAVES = 16 * 1024;
+
+  /**
+   * 每个初始化方法赋值的数量，避免超出单个方法的字节码上限
+   */
+  private static final int INIT_CHUNK = 1000;
+
+  private DrawableIndexWriter() {
+  }
+
+  /**
+   * @param sourceDir java源码根目录
+   * @param className 索引类的完整类名
+   * @param rClass R类的完整类名
+   * @param levels 全部层，第0层为shape根节点，最后一层为结束节点
+   * @param levelTags 除根节点和结束节点外各层的类型，作为参数名
+   * @param cursor 遍历全部叶子的游标，叶子数量由调用方保证不超过{@link #MAX_LEAVES}
+   */
+  static void write(File sourceDir, String className, String rClass, String shapeAlias,
+      List<List<DrawableNode>> levels, List<String> levelTags, LeafCursor cursor)
+      throws IOException {
+    long leafCount = LeafCursor.leafCount(levels);
+
+    String[] names = new String[(int) leafCount];
+    while (cursor.next()) {
+      names[(int) cursor.ordinal()] = cursor.name();
+    }
+
+    int dot = className.lastIndexOf('.');
+    String packageName = dot < 0 ? null : className.substring(0, dot);
+    String simpleName = className.substring(dot + 1);
+    int axisCount = levels.size() - 2;
+
+    StringBuilder java = new StringBuilder();
+    if (packageName != null) {
+      java.append("package ").append(packageName).append(";\n\n");
+    }
+    java.append("import ").append(rClass).append(";\n\n")
+        .append("/**\n")
+        .append(" * ").append(shapeAlias).append("类型drawable索引，由DrawableGenerate生成，不要手动修改\n")
+        .append(" *\n")
+        .append(" * 各轴取值下标按混合进制换算为叶子序号，直接查表得到R.drawable，被排除的组合为0\n")
+        .append(" */\n")
+        .append("public final class ").append(simpleName).append(" {\n\n");
+
+    //各轴取值下标常量
+    Set<String> constants = new HashSet<>();
+    for (int axis = 0; axis < axisCount; axis++) {
+      List<DrawableNode> level = levels.get(axis + 1);
+      for (int i = 0; i < level.size(); i++) {
+        String constant = toConstant(level.get(i).name);
+        if (constant.isEmpty() || !constants.add(constant)) {
+          constant = toConstant(levelTags.get(axis)) + '_' + axis + '_' + i;
+          constants.add(constant);
+        }
+        java.append("  public static final int ").append(constant).append(" = ").append(i)
+            .append(";\n");
+      }
+      java.append('\n');
+    }
+
+    java.append("  private static final int[] DRAWABLES = new int[").append(leafCount).append("];\n\n")
+        .append("  static {\n");
+    for (int chunk = 0; chunk * INIT_CHUNK < leafCount; chunk++) {
+      java.append("    init").append(chunk).append("();\n");
+    }
+    java.append("  }\n\n")
+        .append("  private ").append(simpleName).append("() {\n")
+        .append("  }\n\n");
+
+    //查表方法：参数为各轴取值下标，最后一轴变化最快
+    String[] parameters = new String[axisCount];
+    Set<String> parameterNames = new HashSet<>();
+    for (int axis = 0; axis < axisCount; axis++) {
+      String parameter = toParameter(levelTags.get(axis));
+      parameters[axis] = parameterNames.add(parameter) ? parameter : parameter + axis;
+    }
+    java.append("  /**\n");
+    for (String parameter : parameters) {
+      java.append("   * @param ").append(parameter).append(" 取值下标\n");
+    }
+    java.append("   * @return R.drawable资源id，被排除的组合为0\n")
+        .append("   */\n")
+        .append("  public static int get(");
+    StringBuilder ordinal = new StringBuilder();
+    for (int axis = 0; axis < axisCount; axis++) {
+      if (axis != 0) {
+        java.append(", ");
+        if (axis > 1) {
+          ordinal.insert(0, '(').append(')');
+        }
+        ordinal.append(" * ").append(levels.get(axis + 1).size()).append(" + ");
+      }
+      java.append("int ").append(parameters[axis]);
+      ordinal.append(parameters[axis]);
+    }
+    java.append(") {\n")
+        .append("    return DRAWABLES[").append(axisCount == 0 ? "0" : ordinal).append("];\n")
+        .append("  }\n");
+
+    for (int chunk = 0; chunk * INIT_CHUNK < leafCount; chunk++) {
+      java.append("\n  private static void init").append(chunk).append("() {\n");
+      int end = (int) Math.min(leafCount, (chunk + 1L) * INIT_CHUNK);
+      for (int i = chunk * INIT_CHUNK; i < end; i++) {
+        if (names[i] != null) {
+          java.append("    DRAWABLES[").append(i).append("] = R.drawable.").append(names[i])
+              .append(";\n");
+        }
+      }
+      java.append("  }\n");
+    }
+    java.append("}\n");
+
+    File javaFile = new File(sourceDir,
+        className.replace('.', File.separatorChar) + ".java");
+    writeIfChanged(javaFile, java.toString().getBytes(FragmentTemplate.UTF_8));
+  }
+
+  /**
+   * corners_x1dp转为CORNERS_X1DP，不能作为标识符的字符替换为下划线
+   */
+  private static String toConstant(String name) {
+    if (name == null) {
+      return "";
+    }
+    StringBuilder constant = new StringBuilder(name.length());
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      constant.append(Character.isLetterOrDigit(c) && c < 128 ? c : '_');
+    }
+    if (constant.length() != 0 && Character.isDigit(constant.charAt(0))) {
+      constant.insert(0, '_');
+    }
+    return constant.toString().toUpperCase(Locale.US);
+  }
+
+  /**
+   * corners_top转为cornersTop
+   */
+  private static String toParameter(String tag) {
+    StringBuilder parameter = new StringBuilder(tag.length());
+    boolean upper = false;
+    for (int i = 0; i < tag.length(); i++) {
+      char c = tag.charAt(i);
+      if (c == '_') {
+        upper = parameter.length() != 0;
+      } else {
+        parameter.append(upper ? Character.toUpperCase(c) : c);
+        upper = false;
+      }
+    }
+    return parameter.toString();
+  }
+
+  /**
+   * 内容与已有文件一致时不写入，保持文件修改时间不变，避免触发增量编译
+   *
+   * @return 是否写入
+   */
+  static boolean writeIfChanged(File file, byte[] bytes) throws IOException {
+    if (file.length() == bytes.length && Arrays.equals(readFile(file), bytes)) {
+      return false;
+    }
+    writeFile(file, bytes);
+    return true;
+  }
+
+  static void writeFile(File file, byte[] bytes) throws IOException {
+    File parent = file.getAbsoluteFile().getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("无法创建目录:" + parent);
+    }
+    FileOutputStream outputStream = new FileOutputStream(file);
+    try {
+      outputStream.write(bytes);
+    } finally {
+      outputStream.close();
+    }
+  }
+
+  private static byte[] readFile(File file) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) file.length());
+    FileInputStream inputStream = new FileInputStream(file);
+    try {
+      byte[] buffer = new byte[8 * 1024];
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        bytes.write(buffer, 0, read);
+      }
+    } finally {
+      inputStream.close();
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,368 @@
+package com.licola.drawable.generate;
+
+import com.licola.drawable.generate.DrawableGenerate.Builder;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 声明式的批量生成配置，代替手动修改JavaMain，格式为JSON：
+ * <pre>
+ * {
+ *   "outDir": "src/main/res/drawable",
+ *   "skipUnchanged": true,
+ *   "cleanStale": true,
+ *   "valuesDirs": ["src/main/res/values"],
+ *   "shapes": [
+ *     {
+ *       "shape": "rectangle",
+ *       "alias": "line",
+ *       "axes": [
+ *         {"size": ["x1dp", "x10dp"]},
+ *         {"solid": ["black_A87", "black_A54"]},
+ *         {"stroke": {"dimens": ["x1dp"], "colors": ["gray_deep"]}}
+ *       ]
+ *     }
+ *   ]
+ * }
+ * </pre>
+ * axes按顺序对应Builder的add方法：corners、cornersTop、cornersBottom、cornersLeft、cornersRight、solid、size、stroke
+ * 配置valuesDirs时生成前校验全部@color/@dimen引用，有缺失时不写入任何文件
+ * 配置compiledDir时直接输出aapt2编译后的.flat文件，outDir只用于确定资源类型
+ * shape可以配置manifestKey，同一输出目录下shape、别名和各层类型都相同时需要用它区分
+ * shape配置indexClass时在indexSourceDir下生成该shape的索引类，rClass为R类的完整类名
+ * 相对路径相对于配置文件所在目录
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+public final class DrawableSpec {
+
+  private File outDir;
+  private File archive;
+  private File aliasValues;
+  private File compiledDir;
+  private final List<File> valuesDirs = new ArrayList<>();
+  private boolean replace = true;
+  private boolean skipUnchanged;
+  private boolean cleanStale;
+  private boolean gatheringWrite;
+  private int parallelism;
+  private int pipelineWriters;
+  private int pipelineCapacity = 64;
+  private long maxLeaves;
+  private File indexSourceDir;
+  private String rClass;
+  private final List<Shape> shapes = new ArrayList<>();
+
+  private DrawableSpec() {
+  }
+
+  /**
+   * 一种shape的配置，对应一个Builder
+   */
+  public static final class Shape {
+
+    private final String shape;
+    private final String alias;
+    private final String indexClass;
+    private final String manifestKey;
+    private final List<Axis> axes;
+
+    Shape(String shape, String alias, String indexClass, String manifestKey, List<Axis> axes) {
+      this.shape = shape;
+      this.alias = alias;
+      this.indexClass = indexClass;
+      this.manifestKey = manifestKey;
+      this.axes = axes;
+    }
+
+    public String getShape() {
+      return shape;
+    }
+
+    public String getAlias() {
+      return alias;
+    }
+
+    /**
+     * @return 索引类的完整类名，未配置时为null
+     */
+    public String getIndexClass() {
+      return indexClass;
+    }
+
+    /**
+     * @return 生成清单key，未配置时为null，使用Builder的默认key
+     */
+    public String getManifestKey() {
+      return manifestKey;
+    }
+
+    public List<Axis> getAxes() {
+      return Collections.unmodifiableList(axes);
+    }
+  }
+
+  /**
+   * 一层节点的配置
+   */
+  public static final class Axis {
+
+    private final String type;
+    private final String[] values;
+    private final String[] colors;
+
+    Axis(String type, String[] values, String[] colors) {
+      this.type = type;
+      this.values = values;
+      this.colors = colors;
+    }
+
+    public String getType() {
+      return type;
+    }
+
+    void applyTo(Builder builder) {
+      apply(builder, type, values, colors);
+    }
+
+    /**
+     * 按类型调用Builder对应的add方法
+     *
+     * @param values 资源id，stroke时为dimen资源id
+     * @param colors 只有stroke使用的color资源id
+     */
+    static void apply(Builder builder, String type, String[] values, String[] colors) {
+      switch (type) {
+        case "corners":
+          builder.addCorners(values);
+          break;
+        case "cornersTop":
+          builder.addCornersTop(values);
+          break;
+        case "cornersBottom":
+          builder.addCornersBottom(values);
+          break;
+        case "cornersLeft":
+          builder.addCornersLeft(values);
+          break;
+        case "cornersRight":
+          builder.addCornersRight(values);
+          break;
+        case "solid":
+          builder.addSolid(values);
+          break;
+        case "size":
+          builder.addSize(values);
+          break;
+        case "stroke":
+          builder.addStroke(values, colors);
+          break;
+        default:
+          throw new IllegalArgumentException("未知的drawable配置类型:" + type);
+      }
+    }
+  }
+
+  public static DrawableSpec parse(File specFile) throws IOException {
+    InputStream inputStream = new FileInputStream(specFile);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) specFile.length());
+    try {
+      byte[] buffer = new byte[8 * 1024];
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        bytes.write(buffer, 0, read);
+      }
+    } finally {
+      inputStream.close();
+    }
+
+    try {
+      return parse(new String(bytes.toByteArray(), FragmentTemplate.UTF_8),
+          specFile.getAbsoluteFile().getParentFile());
+    } catch (IllegalArgumentException | ClassCastException | ArrayStoreException e) {
+      throw new IOException("配置文件格式错误:" + specFile + " " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * @param baseDir 相对路径的基准目录
+   * @throws IllegalArgumentException 格式错误
+   */
+  static DrawableSpec parse(String json, File baseDir) {
+    Map<String, Object> root = asObject(JsonReader.parse(json), "配置");
+
+    DrawableSpec spec = new DrawableSpec();
+    spec.outDir = resolve(baseDir, (String) require(root, "outDir"));
+    if (root.containsKey("archive")) {
+      spec.archive = resolve(baseDir, (String) root.get("archive"));
+    }
+    if (root.containsKey("compiledDir")) {
+      spec.compiledDir = resolve(baseDir, (String) root.get("compiledDir"));
+    }
+    if (root.containsKey("aliasValues")) {
+      spec.aliasValues = resolve(baseDir, (String) root.get("aliasValues"));
+    }
+    if (root.containsKey("valuesDirs")) {
+      for (String valuesDir : stringArray(root.get("valuesDirs"))) {
+        spec.valuesDirs.add(resolve(baseDir, valuesDir));
+      }
+    }
+    spec.replace = booleanOption(root, "replace", spec.replace);
+    spec.skipUnchanged = booleanOption(root, "skipUnchanged", spec.skipUnchanged);
+    spec.cleanStale = booleanOption(root, "cleanStale", spec.cleanStale);
+    spec.gatheringWrite = booleanOption(root, "gatheringWrite", spec.gatheringWrite);
+    if (root.containsKey("parallelism")) {
+      spec.parallelism = ((Number) root.get("parallelism")).intValue();
+    }
+    if (root.containsKey("pipelineWriters")) {
+      spec.pipelineWriters = ((Number) root.get("pipelineWriters")).intValue();
+    }
+    if (root.containsKey("maxLeaves")) {
+      spec.maxLeaves = ((Number) root.get("maxLeaves")).longValue();
+    }
+    if (root.containsKey("pipelineCapacity")) {
+      spec.pipelineCapacity = ((Number) root.get("pipelineCapacity")).intValue();
+    }
+    if (root.containsKey("indexSourceDir")) {
+      spec.indexSourceDir = resolve(baseDir, (String) root.get("indexSourceDir"));
+      spec.rClass = (String) require(root, "rClass");
+    }
+
+    for (Object item : (List<?>) require(root, "shapes")) {
+      Map<String, Object> shapeObject = asObject(item, "shapes");
+      String shape = (String) require(shapeObject, "shape");
+      String alias = shapeObject.containsKey("alias") ? (String) shapeObject.get("alias") : shape;
+      String indexClass = (String) shapeObject.get("indexClass");
+      if (indexClass != null && spec.indexSourceDir == null) {
+        throw new IllegalArgumentException("配置indexClass时缺少indexSourceDir");
+      }
+
+      List<Axis> axes = new ArrayList<>();
+      for (Object axisItem : (List<?>) require(shapeObject, "axes")) {
+        Map<String, Object> axisObject = asObject(axisItem, "axes");
+        if (axisObject.size() != 1) {
+          throw new IllegalArgumentException("axes中每项只能有一个类型:" + axisObject.keySet());
+        }
+        Map.Entry<String, Object> entry = axisObject.entrySet().iterator().next();
+        axes.add(parseAxis(entry.getKey(), entry.getValue()));
+      }
+      spec.shapes.add(new Shape(shape, alias, indexClass,
+          (String) shapeObject.get("manifestKey"), axes));
+    }
+    return spec;
+  }
+
+  private static Axis parseAxis(String type, Object value) {
+    if (value instanceof Map) {
+      Map<String, Object> object = asObject(value, type);
+      return new Axis(type, stringArray(require(object, "dimens")),
+          stringArray(require(object, "colors")));
+    }
+    return new Axis(type, stringArray(value), new String[0]);
+  }
+
+  /**
+   * @return 按配置顺序构造的全部Builder
+   */
+  public List<Builder> newBuilders() {
+    List<Builder> builders = new ArrayList<>(shapes.size());
+    for (Shape shape : shapes) {
+      Builder builder = DrawableGenerate.newBuilder(outDir, replace, shape.shape, shape.alias)
+          .skipUnchanged(skipUnchanged)
+          .cleanStale(cleanStale)
+          .gatheringWrite(gatheringWrite)
+          .pipeline(pipelineWriters, pipelineCapacity)
+          .maxLeaves(maxLeaves)
+          .compiledOutput(compiledDir)
+          .manifestKey(shape.manifestKey);
+      if (shape.indexClass != null) {
+        builder.indexClass(indexSourceDir, shape.indexClass, rClass);
+      }
+      for (Axis axis : shape.axes) {
+        axis.applyTo(builder);
+      }
+      builders.add(builder);
+    }
+    return builders;
+  }
+
+  public File getOutDir() {
+    return outDir;
+  }
+
+  /**
+   * @return 共享压缩包输出，未配置时为null
+   */
+  public File getArchive() {
+    return archive;
+  }
+
+  /**
+   * @return 跨Builder去重时的别名values文件，未配置时为null
+   */
+  public File getAliasValues() {
+    return aliasValues;
+  }
+
+  /**
+   * @return 生成前校验资源引用的values目录，未配置时为空
+   */
+  public List<File> getValuesDirs() {
+    return Collections.unmodifiableList(valuesDirs);
+  }
+
+  public boolean isCleanStale() {
+    return cleanStale;
+  }
+
+  /**
+   * @return 并行度，未配置时为0
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public List<Shape> getShapes() {
+    return Collections.unmodifiableList(shapes);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> asObject(Object value, String name) {
+    if (!(value instanceof Map)) {
+      throw new IllegalArgumentException(name + "必须是对象");
+    }
+    return (Map<String, Object>) value;
+  }
+
+  private static Object require(Map<String, Object> object, String key) {
+    Object value = object.get(key);
+    if (value == null) {
+      throw new IllegalArgumentException("缺少" + key);
+    }
+    return value;
+  }
+
+  private static boolean booleanOption(Map<String, Object> object, String key,
+      boolean defaultValue) {
+    Object value = object.get(key);
+    return value != null ? (Boolean) value : defaultValue;
+  }
+
+  private static String[] stringArray(Object value) {
+    List<?> list = (List<?>) value;
+    return list.toArray(new String[list.size()]);
+  }
+
+  private static File resolve(File baseDir, String path) {
+    File file = new File(path);
+    return file.isAbsolute() || baseDir == null ? file : new File(baseDir, path);
+  }
+}
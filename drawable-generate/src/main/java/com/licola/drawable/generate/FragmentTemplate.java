@@ -0,0 +1,85 @@
+package com.licola.drawable.generate;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 预编译的片段模板：模板中的%s为参数占位，字面部分只编码一次UTF-8
+ *
+ * 渲染时只拼接字节，替代每个片段的String.format解析和字符串拷贝
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+final class FragmentTemplate {
+
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final String PLACEHOLDER = "%s";
+
+  /**
+   * 字面部分，数量比参数多一个
+   */
+  private final byte[][] literals;
+
+  private FragmentTemplate(byte[][] literals) {
+    this.literals = literals;
+  }
+
+  static FragmentTemplate compile(String pattern) {
+    List<byte[]> literals = new ArrayList<>();
+    int start = 0;
+    int index;
+    while ((index = pattern.indexOf(PLACEHOLDER, start)) != -1) {
+      literals.add(pattern.substring(start, index).getBytes(UTF_8));
+      start = index + PLACEHOLDER.length();
+    }
+    literals.add(pattern.substring(start).getBytes(UTF_8));
+    return new FragmentTemplate(literals.toArray(new byte[literals.size()][]));
+  }
+
+  /**
+   * @param arg 填入全部占位的同一个参数
+   * @return 渲染后的UTF-8字节
+   */
+  byte[] renderRepeated(String arg) {
+    String[] args = new String[literals.length - 1];
+    Arrays.fill(args, arg);
+    return render(args);
+  }
+
+  /**
+   * @param args 依次填入占位的参数，数量与占位数量一致
+   * @return 渲染后的UTF-8字节
+   */
+  byte[] render(String... args) {
+    if (args.length != literals.length - 1) {
+      throw new IllegalArgumentException(
+          "模板需要" + (literals.length - 1) + "个参数，实际为" + args.length);
+    }
+
+    byte[][] argBytes = new byte[args.length][];
+    int length = 0;
+    for (int i = 0; i < args.length; i++) {
+      argBytes[i] = args[i].getBytes(UTF_8);
+      length += argBytes[i].length;
+    }
+    for (byte[] literal : literals) {
+      length += literal.length;
+    }
+
+    byte[] out = new byte[length];
+    int offset = 0;
+    for (int i = 0; i < literals.length; i++) {
+      System.arraycopy(literals[i], 0, out, offset, literals[i].length);
+      offset += literals[i].length;
+      if (i < argBytes.length) {
+        System.arraycopy(argBytes[i], 0, out, offset, argBytes[i].length);
+        offset += argBytes[i].length;
+      }
+    }
+    return out;
+  }
+}
@@ -0,0 +1,90 @@
+package com.licola.drawable.generate;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * 聚集写入：各层片段预先编码为只读直接缓冲，一个文件只做一次FileChannel聚集写入（xml头、根节点和各层片段）
+ *
+ * 相邻叶子共享除最后一层外的全部片段，写文件时不再拼接整个文件内容
+ * 片段缓冲在一次生成中共享，每个写入者持有自己的视图，只在单个线程内使用
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+final class GatheringXmlWriter {
+
+  private static final byte[] SEPARATOR = {'\n'};
+
+  private static final ByteBuffer HEAD_BUFFER = readOnlyDirect(null, DrawableGenerate.HEAD);
+
+  private final ByteBuffer head;
+  private final ByteBuffer[][] views;
+  private final ByteBuffer[] gather;
+
+  /**
+   * @param fragments {@link #encode(List)}编码的共享片段
+   */
+  GatheringXmlWriter(ByteBuffer[][] fragments) {
+    this.head = HEAD_BUFFER.duplicate();
+    this.views = new ByteBuffer[fragments.length][];
+    for (int depth = 0; depth < fragments.length; depth++) {
+      views[depth] = new ByteBuffer[fragments[depth].length];
+      for (int i = 0; i < fragments[depth].length; i++) {
+        views[depth][i] = fragments[depth][i].duplicate();
+      }
+    }
+    this.gather = new ByteBuffer[fragments.length + 1];
+  }
+
+  /**
+   * 把各层片段编码为只读直接缓冲，除第0层外片段前带换行分隔
+   */
+  static ByteBuffer[][] encode(List<List<DrawableGenerate.DrawableNode>> levels) {
+    ByteBuffer[][] fragments = new ByteBuffer[levels.size()][];
+    for (int depth = 0; depth < fragments.length; depth++) {
+      List<DrawableGenerate.DrawableNode> level = levels.get(depth);
+      fragments[depth] = new ByteBuffer[level.size()];
+      for (int i = 0; i < fragments[depth].length; i++) {
+        fragments[depth][i] = readOnlyDirect(depth == 0 ? null : SEPARATOR, level.get(i).content);
+      }
+    }
+    return fragments;
+  }
+
+  private static ByteBuffer readOnlyDirect(byte[] prefix, byte[] content) {
+    int prefixLength = prefix == null ? 0 : prefix.length;
+    ByteBuffer buffer = ByteBuffer.allocateDirect(prefixLength + content.length);
+    if (prefix != null) {
+      buffer.put(prefix);
+    }
+    buffer.put(content);
+    buffer.flip();
+    return buffer.asReadOnlyBuffer();
+  }
+
+  void write(File outFile, DrawableGenerate.LeafCursor cursor) throws IOException {
+    head.rewind();
+    gather[0] = head;
+    for (int depth = 0; depth < views.length; depth++) {
+      ByteBuffer view = views[depth][cursor.index(depth)];
+      view.rewind();
+      gather[depth + 1] = view;
+    }
+
+    FileOutputStream outputStream = new FileOutputStream(outFile);
+    try {
+      FileChannel channel = outputStream.getChannel();
+      long remaining = cursor.length();
+      while (remaining > 0) {
+        remaining -= channel.write(gather);
+      }
+    } finally {
+      outputStream.close();
+    }
+  }
+}
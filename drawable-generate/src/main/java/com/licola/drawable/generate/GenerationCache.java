@@ -0,0 +1,188 @@
+package com.licola.drawable.generate;
+
+import com.licola.drawable.generate.DrawableGenerate.DrawableNode;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 跨多次生成共享的内存缓存：values资源索引、聚集写入的片段缓冲、各输出目录的生成清单
+ *
+ * 适合在常驻进程（如gradle守护进程）中长期持有，多个模块、多次构建复用同一份解析结果
+ * 每类缓存按最近最少使用淘汰，条目数量有上限；缓存的对象只读，可以被多个线程同时使用
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+public final class GenerationCache {
+
+  private final int maxEntries;
+  private final Map<String, ResourceIndex> indexes;
+  private final Map<FragmentKey, ByteBuffer[][]> fragments;
+  private final Map<File, CachedManifest> manifests;
+
+  /**
+   * @param maxEntries 每类缓存的最大条目数量
+   */
+  public GenerationCache(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries必须大于0:" + maxEntries);
+    }
+    this.maxEntries = maxEntries;
+    this.indexes = lru(maxEntries);
+    this.fragments = lru(maxEntries);
+    this.manifests = lru(maxEntries);
+  }
+
+  private static <K, V> Map<K, V> lru(final int maxEntries) {
+    return new LinkedHashMap<K, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * @return 每类缓存的最大条目数量
+   */
+  public int maxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * values资源索引：全部文件的路径、修改时间和大小都不变时直接返回上次的索引
+   *
+   * @see ResourceIndex#load(List, File)
+   */
+  public ResourceIndex resourceIndex(List<File> valuesFiles, File cacheFile) throws IOException {
+    StringBuilder key = new StringBuilder();
+    for (File file : valuesFiles) {
+      key.append(file.getAbsolutePath()).append('|').append(file.lastModified()).append('|')
+          .append(file.length()).append('\n');
+    }
+    String fingerprint = key.toString();
+
+    synchronized (indexes) {
+      ResourceIndex index = indexes.get(fingerprint);
+      if (index == null) {
+        index = ResourceIndex.load(valuesFiles, cacheFile);
+        indexes.put(fingerprint, index);
+      }
+      return index;
+    }
+  }
+
+  /**
+   * 聚集写入的片段缓冲：各层片段内容完全一致时复用已编码的直接缓冲
+   *
+   * @see GatheringXmlWriter#encode(List)
+   */
+  ByteBuffer[][] fragments(List<List<DrawableNode>> levels) {
+    FragmentKey key = new FragmentKey(levels);
+    synchronized (fragments) {
+      ByteBuffer[][] buffers = fragments.get(key);
+      if (buffers == null) {
+        buffers = GatheringXmlWriter.encode(levels);
+        fragments.put(key, buffers);
+      }
+      return buffers;
+    }
+  }
+
+  /**
+   * 输出目录的生成清单：清单文件的修改时间和大小与上次读取或保存时一致时不再重新读取
+   */
+  GenerationManifest manifest(File outDir) throws IOException {
+    File key = outDir.getAbsoluteFile();
+    synchronized (manifests) {
+      CachedManifest cached = manifests.get(key);
+      if (cached == null || !cached.isCurrent()) {
+        cached = new CachedManifest(GenerationManifest.load(outDir));
+        manifests.put(key, cached);
+      }
+      return cached.manifest;
+    }
+  }
+
+  /**
+   * 记录刚保存的生成清单
+   */
+  void putManifest(File outDir, GenerationManifest manifest) {
+    synchronized (manifests) {
+      manifests.put(outDir.getAbsoluteFile(), new CachedManifest(manifest));
+    }
+  }
+
+  /**
+   * 清空全部缓存
+   */
+  public void clear() {
+    synchronized (indexes) {
+      indexes.clear();
+    }
+    synchronized (fragments) {
+      fragments.clear();
+    }
+    synchronized (manifests) {
+      manifests.clear();
+    }
+  }
+
+  private static final class CachedManifest {
+
+    final GenerationManifest manifest;
+    final long lastModified;
+    final long length;
+
+    CachedManifest(GenerationManifest manifest) {
+      this.manifest = manifest;
+      this.lastModified = manifest.file().lastModified();
+      this.length = manifest.file().length();
+    }
+
+    boolean isCurrent() {
+      File file = manifest.file();
+      return file.lastModified() == lastModified && file.length() == length;
+    }
+  }
+
+  /**
+   * 以各层片段内容为key，哈希预先计算，相等时逐个比较内容
+   */
+  private static final class FragmentKey {
+
+    private final byte[][][] contents;
+    private final int hashCode;
+
+    FragmentKey(List<List<DrawableNode>> levels) {
+      contents = new byte[levels.size()][][];
+      long hash = ContentHash.INITIAL;
+      for (int depth = 0; depth < contents.length; depth++) {
+        List<DrawableNode> level = levels.get(depth);
+        contents[depth] = new byte[level.size()][];
+        hash = ContentHash.update(hash, (byte) level.size());
+        for (int i = 0; i < contents[depth].length; i++) {
+          contents[depth][i] = level.get(i).content;
+          hash = ContentHash.update(hash, contents[depth][i]);
+        }
+      }
+      hashCode = (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof FragmentKey && hashCode == ((FragmentKey) o).hashCode
+          && Arrays.deepEquals(contents, ((FragmentKey) o).contents);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
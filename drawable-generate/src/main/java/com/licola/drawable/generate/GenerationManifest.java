@@ -0,0 +1,229 @@
+package com.licola.drawable.generate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 输出目录下的生成清单：按Builder分组记录上次生成的文件名、长度和内容哈希
+ *
+ * 再次生成时直接与清单比较，不需要遍历或读取整个drawable目录，就能判断内容是否变化，并找出已被移除的旧文件
+ *
+ * 文件格式：
+ * <pre>
+ * &#64;rectangle/line/size+solid
+ * line_size_x1dp_solid_black_a87 223 -5313021337816438421
+ * </pre>
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+final class GenerationManifest {
+
+  /**
+   * 以.开头，aapt会忽略该文件
+   */
+  static final String FILE_NAME = ".drawable-generate-manifest";
+
+  private static final String OWNER_PREFIX = "@";
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /**
+   * 同一进程内多个Builder可能同时提交同一目录的清单
+   */
+  private static final Object LOCK = new Object();
+
+  static final class Entry {
+
+    /**
+     * 文件长度，-1表示内容未知（已存在且不替换的文件）
+     */
+    final long length;
+    final long hash;
+
+    Entry(long length, long hash) {
+      this.length = length;
+      this.hash = hash;
+    }
+
+    boolean matches(long length, long hash) {
+      return this.length >= 0 && this.length == length && this.hash == hash;
+    }
+  }
+
+  private final File file;
+  private final Map<String, Map<String, Entry>> owners = new LinkedHashMap<>();
+
+  private GenerationManifest(File file) {
+    this.file = file;
+  }
+
+  /**
+   * 读取输出目录下的清单，清单不存在时返回空清单
+   */
+  static GenerationManifest load(File outDir) throws IOException {
+    GenerationManifest manifest = new GenerationManifest(new File(outDir, FILE_NAME));
+    if (!manifest.file.exists()) {
+      return manifest;
+    }
+
+    BufferedReader reader = new BufferedReader(
+        new InputStreamReader(new FileInputStream(manifest.file), UTF_8));
+    try {
+      Map<String, Entry> entries = null;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        if (line.startsWith(OWNER_PREFIX)) {
+          entries = new LinkedHashMap<>();
+          manifest.owners.put(line.substring(OWNER_PREFIX.length()), entries);
+          continue;
+        }
+        String[] fields = line.split(" ");
+        if (entries == null || fields.length != 3) {
+          throw new IOException("生成清单格式错误:" + manifest.file + " " + line);
+        }
+        entries.put(fields[0],
+            new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+      }
+    } catch (NumberFormatException e) {
+      throw new IOException("生成清单格式错误:" + manifest.file, e);
+    } finally {
+      reader.close();
+    }
+    return manifest;
+  }
+
+  /**
+   * 优先从缓存读取清单
+   *
+   * @param cache 内存缓存，为null时直接读取文件
+   */
+  static GenerationManifest load(File outDir, GenerationCache cache) throws IOException {
+    return cache != null ? cache.manifest(outDir) : load(outDir);
+  }
+
+  File file() {
+    return file;
+  }
+
+  /**
+   * @return 某个Builder上次生成的文件，不存在时返回空
+   */
+  Map<String, Entry> entries(String owner) {
+    Map<String, Entry> entries = owners.get(owner);
+    return entries != null ? entries : Collections.<String, Entry>emptyMap();
+  }
+
+  /**
+   * 提交某个Builder本次生成的文件：重新读取清单后替换该Builder的分组并保存
+   * 替换时复制出新的清单，缓存中的旧清单保持不变，可以继续被其他线程读取
+   *
+   * @param cache 内存缓存，为null时直接读取文件
+   * @return 上次生成但本次不再生成的文件名
+   */
+  static Set<String> commit(File outDir, String owner, Map<String, Entry> produced,
+      GenerationCache cache) throws IOException {
+    synchronized (LOCK) {
+      GenerationManifest manifest = load(outDir, cache);
+      Set<String> stale = new HashSet<>(manifest.entries(owner).keySet());
+      stale.removeAll(produced.keySet());
+
+      GenerationManifest updated = new GenerationManifest(manifest.file);
+      updated.owners.putAll(manifest.owners);
+      updated.owners.put(owner, new TreeMap<>(produced));
+      updated.save();
+      if (cache != null) {
+        cache.putManifest(outDir, updated);
+      }
+      return stale;
+    }
+  }
+
+  /**
+   * 只保留指定Builder的分组：输出目录的全部Builder已知时，其他分组（已删除或修改了shape、层的Builder）视为过期
+   *
+   * @param owners 保留的Builder key
+   * @param cache 内存缓存，为null时直接读取文件
+   * @return 被移除分组中、且不属于保留分组的文件名
+   */
+  static Set<String> retain(File outDir, Set<String> owners, GenerationCache cache)
+      throws IOException {
+    synchronized (LOCK) {
+      GenerationManifest manifest = load(outDir, cache);
+      if (owners.containsAll(manifest.owners.keySet())) {
+        return Collections.emptySet();
+      }
+
+      GenerationManifest updated = new GenerationManifest(manifest.file);
+      Set<String> stale = new HashSet<>();
+      for (Map.Entry<String, Map<String, Entry>> owner : manifest.owners.entrySet()) {
+        if (owners.contains(owner.getKey())) {
+          updated.owners.put(owner.getKey(), owner.getValue());
+        } else {
+          stale.addAll(owner.getValue().keySet());
+        }
+      }
+      for (Map<String, Entry> entries : updated.owners.values()) {
+        stale.removeAll(entries.keySet());
+      }
+      updated.save();
+      if (cache != null) {
+        cache.putManifest(outDir, updated);
+      }
+      return stale;
+    }
+  }
+
+  /**
+   * 先写临时文件再原子替换，避免中断时留下不完整的清单或丢失清单
+   */
+  private void save() throws IOException {
+    File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+    BufferedWriter writer = new BufferedWriter(
+        new OutputStreamWriter(new FileOutputStream(tempFile), UTF_8));
+    try {
+      for (Map.Entry<String, Map<String, Entry>> owner : owners.entrySet()) {
+        writer.write(OWNER_PREFIX);
+        writer.write(owner.getKey());
+        writer.newLine();
+        for (Map.Entry<String, Entry> entry : owner.getValue().entrySet()) {
+          writer.write(entry.getKey());
+          writer.write(' ');
+          writer.write(Long.toString(entry.getValue().length));
+          writer.write(' ');
+          writer.write(Long.toString(entry.getValue().hash));
+          writer.newLine();
+        }
+      }
+    } finally {
+      writer.close();
+    }
+
+    //原子替换：任何时刻清单都是完整的旧版本或新版本，不会因中断丢失
+    try {
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.licola.drawable.generate;
+
+import java.util.Locale;
+
+/**
+ * 生成前的规划：Builder将生成的叶子数量和输出字节数，由各层片段长度计算，不渲染、不写入
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+public final class GenerationPlan {
+
+  private final String shapeAlias;
+  private final int nodes;
+  private final long combinations;
+  private final long leaves;
+  private final long bytes;
+  private final boolean exact;
+
+  GenerationPlan(String shapeAlias, int nodes, long combinations, long leaves, long bytes,
+      boolean exact) {
+    this.shapeAlias = shapeAlias;
+    this.nodes = nodes;
+    this.combinations = combinations;
+    this.leaves = leaves;
+    this.bytes = bytes;
+    this.exact = exact;
+  }
+
+  /**
+   * @return Builder各层创建的片段节点数量
+   */
+  public int getNodes() {
+    return nodes;
+  }
+
+  /**
+   * @return 各层取值数量的乘积，包含被排除条件排除的组合
+   */
+  public long getCombinations() {
+    return combinations;
+  }
+
+  /**
+   * @return 排除后实际生成的叶子数量，不精确时为上限
+   */
+  public long getLeaves() {
+    return leaves;
+  }
+
+  /**
+   * @return 全部叶子文件（包含xml头）的总字节数，不精确时为上限
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * @return 叶子数量和字节数是否精确：有排除条件且组合数量超过maxLeaves或超出long范围时没有遍历组合，只是上限
+   */
+  public boolean isExact() {
+    return exact;
+  }
+
+  /**
+   * @return 便于阅读的规划描述
+   */
+  public String getMessage() {
+    if (!exact) {
+      return String.format(Locale.CHINA, "%s类型的组合数量%d超过上限，最多生成%d个drawable文件，共不超过%d字节",
+          shapeAlias, combinations, leaves, bytes);
+    }
+    return String.format(Locale.CHINA, "%s类型将生成%d个drawable文件，共%d字节，排除%d个组合",
+        shapeAlias, leaves, bytes, combinations - leaves);
+  }
+
+  @Override
+  public String toString() {
+    return "GenerationPlan{" +
+        "shapeAlias='" + shapeAlias + '\'' +
+        ", nodes=" + nodes +
+        ", combinations=" + combinations +
+        ", leaves=" + leaves +
+        ", bytes=" + bytes +
+        ", exact=" + exact +
+        '}';
+  }
+}
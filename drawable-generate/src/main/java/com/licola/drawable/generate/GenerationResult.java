@@ -0,0 +1,319 @@
+package com.licola.drawable.generate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次生成的结果统计：数量、字节数、各阶段耗时和单个文件的错误
+ *
+ * 并行生成时各阶段耗时为各线程累计值，总耗时为实际经过的时间
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+public final class GenerationResult {
+
+  /**
+   * 单个文件的生成错误
+   */
+  public static final class FileError {
+
+    private final String path;
+    private final IOException exception;
+
+    FileError(String path, IOException exception) {
+      this.path = path;
+      this.exception = exception;
+    }
+
+    /**
+     * @return 出错的文件路径，整体失败时为输出目录
+     */
+    public String getPath() {
+      return path;
+    }
+
+    public IOException getException() {
+      return exception;
+    }
+
+    @Override
+    public String toString() {
+      return path + ":" + exception;
+    }
+  }
+
+  private String shapeAlias;
+
+  private int nodes;
+  private long leaves;
+
+  private int written;
+  private int unchanged;
+  private int skipped;
+  private int deleted;
+  private int aliased;
+  private long pruned;
+  private long bytesWritten;
+
+  private long enumerationNanos;
+  private long renderNanos;
+  private long ioNanos;
+  private long elapsedNanos;
+
+  private List<FileError> errors;
+
+  GenerationResult() {
+  }
+
+  /**
+   * 整体失败的结果
+   */
+  static GenerationResult failed(String shapeAlias, String path, IOException exception) {
+    GenerationResult result = new GenerationResult();
+    result.setShapeAlias(shapeAlias);
+    result.onError(path, exception);
+    return result;
+  }
+
+  void setShapeAlias(String shapeAlias) {
+    this.shapeAlias = shapeAlias;
+  }
+
+  void setNodes(int nodes) {
+    this.nodes = nodes;
+  }
+
+  void setElapsedNanos(long elapsedNanos) {
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  void onLeaf() {
+    leaves++;
+  }
+
+  void onWritten(long bytes) {
+    written++;
+    bytesWritten += bytes;
+  }
+
+  void onUnchanged() {
+    unchanged++;
+  }
+
+  void onSkipped() {
+    skipped++;
+  }
+
+  void onDeleted() {
+    deleted++;
+  }
+
+  void onAliased() {
+    aliased++;
+  }
+
+  void addPruned(long count) {
+    pruned += count;
+  }
+
+  void onError(String path, IOException exception) {
+    if (errors == null) {
+      errors = new ArrayList<>();
+    }
+    errors.add(new FileError(path, exception));
+  }
+
+  /**
+   * 累计从start到现在的遍历耗时
+   *
+   * @return 当前时间，作为下一阶段的开始
+   */
+  long addEnumerationTime(long startNanos) {
+    long now = System.nanoTime();
+    enumerationNanos += now - startNanos;
+    return now;
+  }
+
+  /**
+   * 累计从start到现在的渲染耗时
+   *
+   * @return 当前时间，作为下一阶段的开始
+   */
+  long addRenderTime(long startNanos) {
+    long now = System.nanoTime();
+    renderNanos += now - startNanos;
+    return now;
+  }
+
+  /**
+   * 累计从start到现在的I/O耗时
+   *
+   * @return 当前时间，作为下一阶段的开始
+   */
+  long addIoTime(long startNanos) {
+    long now = System.nanoTime();
+    ioNanos += now - startNanos;
+    return now;
+  }
+
+  /**
+   * 合并其他分段的统计
+   */
+  void merge(GenerationResult other) {
+    leaves += other.leaves;
+    written += other.written;
+    unchanged += other.unchanged;
+    skipped += other.skipped;
+    deleted += other.deleted;
+    aliased += other.aliased;
+    pruned += other.pruned;
+    bytesWritten += other.bytesWritten;
+    enumerationNanos += other.enumerationNanos;
+    renderNanos += other.renderNanos;
+    ioNanos += other.ioNanos;
+    if (other.errors != null) {
+      if (errors == null) {
+        errors = new ArrayList<>();
+      }
+      errors.addAll(other.errors);
+    }
+  }
+
+  /**
+   * @return 是否全部生成成功
+   */
+  public boolean isSuccess() {
+    return errors == null;
+  }
+
+  /**
+   * @return Builder各层创建的片段节点数量
+   */
+  public int getNodes() {
+    return nodes;
+  }
+
+  /**
+   * @return 遍历的叶子数量
+   */
+  public long getLeaves() {
+    return leaves;
+  }
+
+  /**
+   * @return 实际写入的文件数量
+   */
+  public int getWritten() {
+    return written;
+  }
+
+  /**
+   * @return 内容与已有文件一致，未写入的文件数量
+   */
+  public int getUnchanged() {
+    return unchanged;
+  }
+
+  /**
+   * @return 已存在且不替换，被跳过的文件数量
+   */
+  public int getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * @return 上次生成、本次不再生成而被删除的文件数量
+   */
+  public int getDeleted() {
+    return deleted;
+  }
+
+  /**
+   * @return 与其他叶子内容相同，只生成别名的数量
+   */
+  public int getAliased() {
+    return aliased;
+  }
+
+  /**
+   * @return 被排除条件跳过、没有遍历的叶子数量
+   */
+  public long getPruned() {
+    return pruned;
+  }
+
+  /**
+   * @return 实际写入的字节数
+   */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  public long getEnumerationTime(TimeUnit unit) {
+    return unit.convert(enumerationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public long getRenderTime(TimeUnit unit) {
+    return unit.convert(renderNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public long getIoTime(TimeUnit unit) {
+    return unit.convert(ioNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public long getElapsedTime(TimeUnit unit) {
+    return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @return 单个文件的错误，全部成功时为空
+   */
+  public List<FileError> getErrors() {
+    return errors != null ? Collections.unmodifiableList(errors)
+        : Collections.<FileError>emptyList();
+  }
+
+  /**
+   * @return 便于阅读的生成结果描述
+   */
+  public String getMessage() {
+    String msg = String.format(Locale.CHINA, "生成%d个%s类型drawable文件，未变化%d个，跳过%d个，删除%d个",
+        written, shapeAlias, unchanged, skipped, deleted);
+    if (aliased != 0) {
+      msg += "，别名" + aliased + "个";
+    }
+    if (pruned != 0) {
+      msg += "，排除" + pruned + "个";
+    }
+    if (errors != null) {
+      msg += "，失败" + errors.size() + "个:" + errors;
+    }
+    return msg;
+  }
+
+  @Override
+  public String toString() {
+    return "GenerationResult{" +
+        "shapeAlias='" + shapeAlias + '\'' +
+        ", nodes=" + nodes +
+        ", leaves=" + leaves +
+        ", written=" + written +
+        ", unchanged=" + unchanged +
+        ", skipped=" + skipped +
+        ", deleted=" + deleted +
+        ", aliased=" + aliased +
+        ", pruned=" + pruned +
+        ", bytesWritten=" + bytesWritten +
+        ", enumerationNanos=" + enumerationNanos +
+        ", renderNanos=" + renderNanos +
+        ", ioNanos=" + ioNanos +
+        ", elapsedNanos=" + elapsedNanos +
+        ", errors=" + errors +
+        '}';
+  }
+}
@@ -18,14 +18,16 @@ public class JavaMain {
 
     testBuild(dir);
 //    buildDrawableXml(dir);
+    //也可以使用声明式配置批量生成，见drawable-spec.json
+//    DrawableGenerateCli.run(new File("./drawable-generate/drawable-spec.json"));
 
   }
 
   private static void testBuild(File dir) {
-    String msg = DrawableGenerate.newBuilder(dir, true, "oval", "circle")//生成圆（oval） 文件别名circle
+    GenerationResult result = DrawableGenerate.newBuilder(dir, true, "oval", "circle")//生成圆（oval） 文件别名circle
         .addSolid(new String[]{"black_A87", "black_A54", "black_A32"})
         .build();
-    LLogger.d(msg);
+    LLogger.d(result.getMessage());
 
     DrawableGenerate.newBuilder(dir, true, "rectangle", "line")
         .addNode(new OnProcessResources[]{new OnProcessResources() {
@@ -0,0 +1,210 @@
+package com.licola.drawable.generate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读取spec配置用的最小JSON解析：对象解析为LinkedHashMap（保持声明顺序），数组为List，
+ * 数字为Long或Double，其余为String、Boolean或null
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+final class JsonReader {
+
+  private final String json;
+  private int pos;
+
+  private JsonReader(String json) {
+    this.json = json;
+  }
+
+  /**
+   * @throws IllegalArgumentException 格式错误
+   */
+  static Object parse(String json) {
+    JsonReader reader = new JsonReader(json);
+    Object value = reader.readValue();
+    reader.skipWhitespace();
+    if (reader.pos != json.length()) {
+      throw reader.error("多余的内容");
+    }
+    return value;
+  }
+
+  private Object readValue() {
+    skipWhitespace();
+    if (pos >= json.length()) {
+      throw error("内容不完整");
+    }
+    char c = json.charAt(pos);
+    switch (c) {
+      case '{':
+        return readObject();
+      case '[':
+        return readArray();
+      case '"':
+        return readString();
+      case 't':
+        expect("true");
+        return Boolean.TRUE;
+      case 'f':
+        expect("false");
+        return Boolean.FALSE;
+      case 'n':
+        expect("null");
+        return null;
+      default:
+        if (c == '-' || (c >= '0' && c <= '9')) {
+          return readNumber();
+        }
+        throw error("无法识别的字符'" + c + "'");
+    }
+  }
+
+  private Map<String, Object> readObject() {
+    Map<String, Object> object = new LinkedHashMap<>();
+    pos++;
+    skipWhitespace();
+    if (peek() == '}') {
+      pos++;
+      return object;
+    }
+    while (true) {
+      skipWhitespace();
+      if (peek() != '"') {
+        throw error("对象的key必须是字符串");
+      }
+      String key = readString();
+      skipWhitespace();
+      expect(":");
+      object.put(key, readValue());
+      skipWhitespace();
+      char c = next();
+      if (c == '}') {
+        return object;
+      }
+      if (c != ',') {
+        throw error("对象中缺少','或'}'");
+      }
+    }
+  }
+
+  private List<Object> readArray() {
+    List<Object> array = new ArrayList<>();
+    pos++;
+    skipWhitespace();
+    if (peek() == ']') {
+      pos++;
+      return array;
+    }
+    while (true) {
+      array.add(readValue());
+      skipWhitespace();
+      char c = next();
+      if (c == ']') {
+        return array;
+      }
+      if (c != ',') {
+        throw error("数组中缺少','或']'");
+      }
+    }
+  }
+
+  private String readString() {
+    pos++;
+    StringBuilder builder = new StringBuilder();
+    while (true) {
+      char c = next();
+      if (c == '"') {
+        return builder.toString();
+      }
+      if (c != '\\') {
+        builder.append(c);
+        continue;
+      }
+      char escape = next();
+      switch (escape) {
+        case '"':
+        case '\\':
+        case '/':
+          builder.append(escape);
+          break;
+        case 'b':
+          builder.append('\b');
+          break;
+        case 'f':
+          builder.append('\f');
+          break;
+        case 'n':
+          builder.append('\n');
+          break;
+        case 'r':
+          builder.append('\r');
+          break;
+        case 't':
+          builder.append('\t');
+          break;
+        case 'u':
+          if (pos + 4 > json.length()) {
+            throw error("转义字符不完整");
+          }
+          builder.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+          pos += 4;
+          break;
+        default:
+          throw error("无法识别的转义字符'\\" + escape + "'");
+      }
+    }
+  }
+
+  private Object readNumber() {
+    int start = pos;
+    boolean decimal = false;
+    while (pos < json.length()) {
+      char c = json.charAt(pos);
+      if (c == '.' || c == 'e' || c == 'E') {
+        decimal = true;
+      } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+        break;
+      }
+      pos++;
+    }
+    String number = json.substring(start, pos);
+    try {
+      return decimal ? (Object) Double.parseDouble(number) : (Object) Long.parseLong(number);
+    } catch (NumberFormatException e) {
+      throw error("数字格式错误:" + number);
+    }
+  }
+
+  private void expect(String token) {
+    if (!json.startsWith(token, pos)) {
+      throw error("缺少'" + token + "'");
+    }
+    pos += token.length();
+  }
+
+  private char peek() {
+    return pos < json.length() ? json.charAt(pos) : 0;
+  }
+
+  private char next() {
+    if (pos >= json.length()) {
+      throw error("内容不完整");
+    }
+    return json.charAt(pos++);
+  }
+
+  private void skipWhitespace() {
+    while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+      pos++;
+    }
+  }
+
+  private IllegalArgumentException error(String msg) {
+    return new IllegalArgumentException("JSON格式错误（位置" + pos + "）:" + msg);
+  }
+}
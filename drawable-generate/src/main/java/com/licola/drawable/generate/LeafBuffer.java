@@ -0,0 +1,64 @@
+package com.licola.drawable.generate;
+
+import java.util.Arrays;
+
+/**
+ * 可复用的叶子渲染缓冲，每个线程持有一个，叶子内容只做字节拷贝
+ * 流水线生成时缓冲在渲染线程和写入线程间传递，由缓冲池统一分配
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+final class LeafBuffer {
+
+  private static final ThreadLocal<LeafBuffer> LOCAL = new ThreadLocal<LeafBuffer>() {
+    @Override
+    protected LeafBuffer initialValue() {
+      return new LeafBuffer();
+    }
+  };
+
+  private byte[] bytes = new byte[1024];
+  private int size;
+
+  LeafBuffer() {
+  }
+
+  /**
+   * @return 当前线程的缓冲，已清空
+   */
+  static LeafBuffer obtain() {
+    LeafBuffer buffer = LOCAL.get();
+    buffer.reset();
+    return buffer;
+  }
+
+  void reset() {
+    size = 0;
+  }
+
+  void write(byte b) {
+    ensureCapacity(size + 1);
+    bytes[size++] = b;
+  }
+
+  void write(byte[] src) {
+    ensureCapacity(size + src.length);
+    System.arraycopy(src, 0, bytes, size, src.length);
+    size += src.length;
+  }
+
+  byte[] array() {
+    return bytes;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+    }
+  }
+}
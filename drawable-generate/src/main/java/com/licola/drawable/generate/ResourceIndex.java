@@ -0,0 +1,240 @@
+package com.licola.drawable.generate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * values资源索引：流式解析values下的xml，记录全部"类型/名称"，用于生成前校验@color/@dimen引用
+ *
+ * 解析结果按文件缓存到磁盘，文件修改时间和大小不变时直接使用缓存，不再解析
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+public final class ResourceIndex {
+
+  private static final String CACHE_FILE_PREFIX = "#file ";
+
+  private final Set<String> resources;
+
+  private ResourceIndex(Set<String> resources) {
+    this.resources = resources;
+  }
+
+  /**
+   * 索引多个values目录下的全部xml
+   *
+   * @param valuesDirs values目录，如src/main/res/values
+   * @param cacheFile 解析缓存文件，为null时不缓存
+   */
+  public static ResourceIndex loadDirs(List<File> valuesDirs, File cacheFile) throws IOException {
+    List<File> valuesFiles = new ArrayList<>();
+    for (File valuesDir : valuesDirs) {
+      File[] files = valuesDir.listFiles();
+      if (files == null) {
+        throw new IOException("values目录不存在:" + valuesDir);
+      }
+      Arrays.sort(files);
+      for (File file : files) {
+        if (file.isFile() && file.getName().endsWith(DrawableGenerate.FILE_SUFFIX)) {
+          valuesFiles.add(file);
+        }
+      }
+    }
+    return load(valuesFiles, cacheFile);
+  }
+
+  /**
+   * @param valuesFiles values xml文件，如color.xml、dimens.xml
+   * @param cacheFile 解析缓存文件，为null时不缓存
+   */
+  public static ResourceIndex load(List<File> valuesFiles, File cacheFile) throws IOException {
+    Map<String, CachedFile> cache = cacheFile != null ? readCache(cacheFile)
+        : new HashMap<String, CachedFile>();
+
+    Map<String, CachedFile> current = new LinkedHashMap<>();
+    Set<String> resources = new HashSet<>();
+    SAXParser parser = null;
+    for (File file : valuesFiles) {
+      String path = file.getAbsolutePath();
+      CachedFile cached = cache.get(path);
+      if (cached == null || cached.lastModified != file.lastModified()
+          || cached.length != file.length()) {
+        if (parser == null) {
+          parser = newParser();
+        }
+        cached = new CachedFile(file.lastModified(), file.length(), parse(parser, file));
+      }
+      current.put(path, cached);
+      resources.addAll(cached.resources);
+    }
+
+    if (cacheFile != null && !current.equals(cache)) {
+      writeCache(cacheFile, current);
+    }
+    return new ResourceIndex(resources);
+  }
+
+  /**
+   * @param type 资源类型，如color、dimen
+   * @param name 资源名称
+   */
+  public boolean contains(String type, String name) {
+    return resources.contains(type + '/' + name);
+  }
+
+  public int size() {
+    return resources.size();
+  }
+
+  private static final class CachedFile {
+
+    final long lastModified;
+    final long length;
+    final List<String> resources;
+
+    CachedFile(long lastModified, long length, List<String> resources) {
+      this.lastModified = lastModified;
+      this.length = length;
+      this.resources = resources;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof CachedFile)) {
+        return false;
+      }
+      CachedFile that = (CachedFile) o;
+      return lastModified == that.lastModified && length == that.length;
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(new long[]{lastModified, length});
+    }
+  }
+
+  private static SAXParser newParser() throws IOException {
+    try {
+      return SAXParserFactory.newInstance().newSAXParser();
+    } catch (ParserConfigurationException | SAXException e) {
+      throw new IOException("无法创建xml解析器", e);
+    }
+  }
+
+  /**
+   * 只读取resources下一层的元素：item取type属性为类型，数组类元素归为array，其余以标签名为类型
+   */
+  private static List<String> parse(SAXParser parser, File file) throws IOException {
+    final List<String> resources = new ArrayList<>();
+    try {
+      parser.reset();
+      parser.parse(file, new DefaultHandler() {
+        private int depth;
+
+        @Override
+        public void startElement(String uri, String localName, String qName,
+            Attributes attributes) {
+          depth++;
+          String name = attributes.getValue("name");
+          if (depth != 2 || name == null) {
+            return;
+          }
+          String type = qName;
+          if ("item".equals(qName)) {
+            type = attributes.getValue("type");
+          } else if (qName.endsWith("-array")) {
+            type = "array";
+          }
+          if (type != null) {
+            resources.add(type + '/' + name);
+          }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+          depth--;
+        }
+      });
+    } catch (SAXException e) {
+      throw new IOException("values资源解析失败:" + file + " " + e.getMessage(), e);
+    }
+    return resources;
+  }
+
+  private static Map<String, CachedFile> readCache(File cacheFile) {
+    Map<String, CachedFile> cache = new HashMap<>();
+    if (!cacheFile.exists()) {
+      return cache;
+    }
+    try {
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(new FileInputStream(cacheFile), FragmentTemplate.UTF_8));
+      try {
+        List<String> resources = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.startsWith(CACHE_FILE_PREFIX)) {
+            //#file 修改时间 大小 路径，路径放最后以允许包含空格
+            String[] fields = line.substring(CACHE_FILE_PREFIX.length()).split(" ", 3);
+            resources = new ArrayList<>();
+            cache.put(fields[2], new CachedFile(Long.parseLong(fields[0]),
+                Long.parseLong(fields[1]), resources));
+          } else if (resources != null && !line.isEmpty()) {
+            resources.add(line);
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    } catch (IOException | RuntimeException e) {
+      //缓存损坏时重新解析
+      cache.clear();
+    }
+    return cache;
+  }
+
+  private static void writeCache(File cacheFile, Map<String, CachedFile> cache)
+      throws IOException {
+    File parent = cacheFile.getAbsoluteFile().getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("无法创建目录:" + parent);
+    }
+    BufferedWriter writer = new BufferedWriter(
+        new OutputStreamWriter(new FileOutputStream(cacheFile), FragmentTemplate.UTF_8));
+    try {
+      for (Map.Entry<String, CachedFile> entry : cache.entrySet()) {
+        CachedFile file = entry.getValue();
+        writer.write(CACHE_FILE_PREFIX + file.lastModified + ' ' + file.length + ' '
+            + entry.getKey());
+        writer.newLine();
+        for (String resource : file.resources) {
+          writer.write(resource);
+          writer.newLine();
+        }
+      }
+    } finally {
+      writer.close();
+    }
+  }
+}
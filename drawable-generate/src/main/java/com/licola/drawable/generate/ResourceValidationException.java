@@ -0,0 +1,30 @@
+package com.licola.drawable.generate;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 生成前资源校验失败：一次列出Builder中全部不存在的@color/@dimen引用
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+public class ResourceValidationException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final List<String> missing;
+
+  ResourceValidationException(String shapeAlias, List<String> missing) {
+    super(shapeAlias + " 引用了" + missing.size() + "个不存在的资源:" + missing);
+    this.missing = Collections.unmodifiableList(missing);
+  }
+
+  /**
+   * @return 不存在的资源引用，如@color/black_A87
+   */
+  public List<String> getMissing() {
+    return missing;
+  }
+}
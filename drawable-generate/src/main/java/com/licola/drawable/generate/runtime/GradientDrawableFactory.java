@@ -0,0 +1,294 @@
+package com.licola.drawable.generate.runtime;
+
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.support.annotation.ColorInt;
+import android.support.annotation.ColorRes;
+import android.support.annotation.DimenRes;
+import android.support.v4.content.res.ResourcesCompat;
+import android.util.LruCache;
+import java.util.Arrays;
+
+/**
+ * 运行时按需构造GradientDrawable，代替构建期生成全部组合的xml文件，适合取值很多的轴（如各品牌颜色）
+ *
+ * 与DrawableGenerate.Builder使用相同的轴：shape、corners、solid、size、stroke
+ * 相同配置只构造一次，缓存其ConstantState，再次获取时共享同一份状态，不重新构造
+ *
+ * 示例：
+ * <pre>
+ * GradientDrawableFactory factory = new GradientDrawableFactory(getResources(), 64);
+ * Drawable drawable = factory.get(factory.newSpec("rectangle")
+ *     .cornersRes(R.dimen.x4dp)
+ *     .solid(brandColor)
+ *     .strokeRes(R.dimen.x1dp, R.color.gray_deep));
+ * </pre>
+ * 返回的drawable共享状态，修改前需要先调用{@link Drawable#mutate()}
+ *
+ * @author LiCola
+ * @date 2026/10/17
+ */
+public final class GradientDrawableFactory {
+
+  private final Resources resources;
+  private final LruCache<Spec, Drawable.ConstantState> states;
+
+  /**
+   * @param resources 解析dimen/color资源和创建drawable使用的资源
+   * @param maxSize 缓存的配置数量上限，超过时淘汰最近最少使用的配置
+   */
+  public GradientDrawableFactory(Resources resources, int maxSize) {
+    this.resources = resources;
+    this.states = new LruCache<>(maxSize);
+  }
+
+  /**
+   * @param shape 与Builder相同的形状名称：rectangle、oval、line、ring
+   */
+  public Spec newSpec(String shape) {
+    return new Spec(resources, toShape(shape));
+  }
+
+  /**
+   * 获取配置对应的drawable，缓存中已有时共享其ConstantState
+   */
+  public Drawable get(Spec spec) {
+    Drawable.ConstantState state = states.get(spec);
+    if (state != null) {
+      return state.newDrawable(resources);
+    }
+
+    GradientDrawable drawable = spec.create();
+    //配置在构造后仍可能被调用方修改，缓存key使用副本
+    states.put(spec.copy(), drawable.getConstantState());
+    return drawable;
+  }
+
+  /**
+   * 清空缓存的全部状态
+   */
+  public void evictAll() {
+    states.evictAll();
+  }
+
+  public int hitCount() {
+    return states.hitCount();
+  }
+
+  public int missCount() {
+    return states.missCount();
+  }
+
+  private static int toShape(String shape) {
+    switch (shape) {
+      case "rectangle":
+        return GradientDrawable.RECTANGLE;
+      case "oval":
+        return GradientDrawable.OVAL;
+      case "line":
+        return GradientDrawable.LINE;
+      case "ring":
+        return GradientDrawable.RING;
+      default:
+        throw new IllegalArgumentException("不支持的shape:" + shape);
+    }
+  }
+
+  /**
+   * 一种drawable配置，同时作为缓存key：只由形状和各轴的像素值、颜色值组成，resources不参与比较
+   */
+  public static final class Spec {
+
+    private static final int UNSET = -1;
+
+    private final Resources resources;
+
+    private final int shape;
+    /**
+     * 左上、右上、右下、左下的圆角半径
+     */
+    private final float[] radii = new float[4];
+    private boolean hasSolid;
+    private int solidColor;
+    private int width = UNSET;
+    private int height = UNSET;
+    private int strokeWidth = UNSET;
+    private int strokeColor;
+
+    private Spec(Resources resources, int shape) {
+      this.resources = resources;
+      this.shape = shape;
+    }
+
+    /**
+     * 四个圆角
+     */
+    public Spec corners(float radius) {
+      Arrays.fill(radii, radius);
+      return this;
+    }
+
+    public Spec cornersRes(@DimenRes int dimenId) {
+      return corners(resources.getDimension(dimenId));
+    }
+
+    /**
+     * 只有上边两个圆角
+     */
+    public Spec cornersTop(float radius) {
+      radii[0] = radius;
+      radii[1] = radius;
+      return this;
+    }
+
+    public Spec cornersTopRes(@DimenRes int dimenId) {
+      return cornersTop(resources.getDimension(dimenId));
+    }
+
+    /**
+     * 只有底边两个圆角
+     */
+    public Spec cornersBottom(float radius) {
+      radii[2] = radius;
+      radii[3] = radius;
+      return this;
+    }
+
+    public Spec cornersBottomRes(@DimenRes int dimenId) {
+      return cornersBottom(resources.getDimension(dimenId));
+    }
+
+    /**
+     * 只有左边两个圆角
+     */
+    public Spec cornersLeft(float radius) {
+      radii[0] = radius;
+      radii[3] = radius;
+      return this;
+    }
+
+    public Spec cornersLeftRes(@DimenRes int dimenId) {
+      return cornersLeft(resources.getDimension(dimenId));
+    }
+
+    /**
+     * 只有右边两个圆角
+     */
+    public Spec cornersRight(float radius) {
+      radii[1] = radius;
+      radii[2] = radius;
+      return this;
+    }
+
+    public Spec cornersRightRes(@DimenRes int dimenId) {
+      return cornersRight(resources.getDimension(dimenId));
+    }
+
+    /**
+     * 填充色
+     */
+    public Spec solid(@ColorInt int color) {
+      this.hasSolid = true;
+      this.solidColor = color;
+      return this;
+    }
+
+    public Spec solidRes(@ColorRes int colorId) {
+      return solid(ResourcesCompat.getColor(resources, colorId, null));
+    }
+
+    /**
+     * 大小，与Builder相同宽高取同一个值
+     */
+    public Spec size(int size) {
+      this.width = size;
+      this.height = size;
+      return this;
+    }
+
+    public Spec sizeRes(@DimenRes int dimenId) {
+      return size(resources.getDimensionPixelSize(dimenId));
+    }
+
+    /**
+     * 线条
+     */
+    public Spec stroke(int width, @ColorInt int color) {
+      this.strokeWidth = width;
+      this.strokeColor = color;
+      return this;
+    }
+
+    public Spec strokeRes(@DimenRes int dimenId, @ColorRes int colorId) {
+      return stroke(resources.getDimensionPixelSize(dimenId),
+          ResourcesCompat.getColor(resources, colorId, null));
+    }
+
+    private GradientDrawable create() {
+      GradientDrawable drawable = new GradientDrawable();
+      drawable.setShape(shape);
+      if (radii[0] == radii[1] && radii[1] == radii[2] && radii[2] == radii[3]) {
+        if (radii[0] != 0) {
+          drawable.setCornerRadius(radii[0]);
+        }
+      } else {
+        drawable.setCornerRadii(new float[]{radii[0], radii[0], radii[1], radii[1],
+            radii[2], radii[2], radii[3], radii[3]});
+      }
+      if (hasSolid) {
+        drawable.setColor(solidColor);
+      }
+      if (width != UNSET) {
+        drawable.setSize(width, height);
+      }
+      if (strokeWidth != UNSET) {
+        drawable.setStroke(strokeWidth, strokeColor);
+      }
+      return drawable;
+    }
+
+    private Spec copy() {
+      Spec copy = new Spec(resources, shape);
+      System.arraycopy(radii, 0, copy.radii, 0, radii.length);
+      copy.hasSolid = hasSolid;
+      copy.solidColor = solidColor;
+      copy.width = width;
+      copy.height = height;
+      copy.strokeWidth = strokeWidth;
+      copy.strokeColor = strokeColor;
+      return copy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Spec)) {
+        return false;
+      }
+      Spec spec = (Spec) o;
+      return shape == spec.shape
+          && hasSolid == spec.hasSolid
+          && solidColor == spec.solidColor
+          && width == spec.width
+          && height == spec.height
+          && strokeWidth == spec.strokeWidth
+          && strokeColor == spec.strokeColor
+          && Arrays.equals(radii, spec.radii);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = shape;
+      result = 31 * result + Arrays.hashCode(radii);
+      result = 31 * result + (hasSolid ? solidColor : 0);
+      result = 31 * result + width;
+      result = 31 * result + height;
+      result = 31 * result + strokeWidth;
+      result = 31 * result + strokeColor;
+      return result;
+    }
+  }
+}
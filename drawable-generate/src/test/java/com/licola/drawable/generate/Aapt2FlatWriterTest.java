@@ -0,0 +1,333 @@
+package com.licola.drawable.generate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.licola.drawable.generate.DrawableGenerate.Builder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * .flat输出：解码容器头部和protobuf格式的XmlNode，与同一叶子的xml输出用DOM解析的结果比较
+ */
+public class Aapt2FlatWriterTest {
+
+  private static final String XMLNS = "http://www.w3.org/2000/xmlns/";
+
+  private File root;
+  private File xmlDir;
+  private File flatDir;
+
+  @Before
+  public void setUp() throws IOException {
+    root = TestDirs.create("flat");
+    xmlDir = new File(root, "drawable");
+    flatDir = new File(root, "compiled");
+    assertTrue(xmlDir.mkdirs());
+    assertTrue(flatDir.mkdirs());
+  }
+
+  @After
+  public void tearDown() {
+    TestDirs.delete(root);
+  }
+
+  @Test
+  public void shapes_matchXmlOutput() throws Exception {
+    assertMatchesXml(newShape());
+  }
+
+  @Test
+  public void composites_matchXmlOutput() throws Exception {
+    Builder normal = DrawableGenerate.newBuilder(xmlDir, true, "rectangle", "btn_normal")
+        .addSolid(new String[]{"orange", "white"});
+    Builder pressed = DrawableGenerate.newBuilder(xmlDir, true, "rectangle", "btn_pressed")
+        .addSolid(new String[]{"gray"});
+    assertMatchesXml(DrawableGenerate.newSelector(xmlDir, true, "button")
+        .addState("state_pressed", pressed)
+        .addDefault(normal));
+  }
+
+  @Test
+  public void qualifiedResourceDir_isRejected() {
+    GenerationResult result = DrawableGenerate.newBuilder(new File(root, "drawable-v21"), true,
+        "rectangle")
+        .addSolid(new String[]{"orange"})
+        .compiledOutput(flatDir)
+        .build();
+    assertFalse(result.isSuccess());
+  }
+
+  @Test
+  public void cleanStale_deletesFlatFilesOfRemovedValues() {
+    assertTrue(newFlatLine("orange", "white", "gray").build().isSuccess());
+    assertEquals(3, flatFiles().size());
+
+    GenerationResult result = newFlatLine("orange", "gray").build();
+
+    assertTrue(result.isSuccess());
+    assertEquals(1, result.getDeleted());
+    assertEquals(2, result.getUnchanged());
+    List<String> after = flatFiles();
+    assertEquals(2, after.size());
+    assertFalse(after.contains("drawable_line_solid_white.xml.flat"));
+    assertTrue(new File(flatDir, GenerationManifest.FILE_NAME).exists());
+    assertEquals(0, xmlDir.list().length);
+  }
+
+  @Test
+  public void batch_deletesFlatFilesOfRemovedBuilders() {
+    new DrawableBatch(1)
+        .add(newFlatLine("orange"))
+        .add(DrawableGenerate.newBuilder(xmlDir, true, "oval", "circle")
+            .addSolid(new String[]{"gray"})
+            .compiledOutput(flatDir)
+            .cleanStale(true))
+        .cleanStaleOwners(true)
+        .run();
+    assertEquals(2, flatFiles().size());
+
+    List<GenerationResult> results = new DrawableBatch(1)
+        .add(newFlatLine("orange"))
+        .cleanStaleOwners(true)
+        .run();
+
+    assertEquals(2, results.size());
+    assertEquals(1, results.get(1).getDeleted());
+    assertEquals(Collections.singletonList("drawable_line_solid_orange.xml.flat"), flatFiles());
+  }
+
+  private Builder newFlatLine(String... colors) {
+    return DrawableGenerate.newBuilder(xmlDir, true, "rectangle", "line")
+        .addSolid(colors)
+        .compiledOutput(flatDir)
+        .skipUnchanged(true)
+        .cleanStale(true);
+  }
+
+  private List<String> flatFiles() {
+    List<String> names = new ArrayList<>();
+    for (String name : flatDir.list()) {
+      if (name.endsWith(Aapt2FlatWriter.FILE_SUFFIX)) {
+        names.add(name);
+      }
+    }
+    Collections.sort(names);
+    return names;
+  }
+
+  private Builder newShape() {
+    return DrawableGenerate.newBuilder(xmlDir, true, "rectangle", "line")
+        .addCorners(new String[]{"x1dp", "x4dp"})
+        .addSolid(new String[]{"black_A87", "orange"})
+        .addStroke(new String[]{"x1dp"}, new String[]{"gray"});
+  }
+
+  /**
+   * 同一个Builder先生成xml，再编译输出.flat，逐个比较
+   */
+  private void assertMatchesXml(Builder builder) throws Exception {
+    assertTrue(builder.build().isSuccess());
+    assertTrue(builder.compiledOutput(flatDir).build().isSuccess());
+
+    Map<String, byte[]> xmlFiles = TestDirs.drawables(xmlDir);
+    File[] flatFiles = flatDir.listFiles();
+    assertFalse(xmlFiles.isEmpty());
+    assertEquals(xmlFiles.size(), flatFiles.length);
+    for (String xmlName : xmlFiles.keySet()) {
+      String name = xmlName.substring(0, xmlName.length() - DrawableGenerate.FILE_SUFFIX.length());
+      File flatFile = new File(flatDir, Aapt2FlatWriter.fileName("drawable", name));
+      assertTrue(flatFile.getName(), flatFile.exists());
+      byte[] xmlNode = readContainer(Files.readAllBytes(flatFile.toPath()), name);
+      assertEquals(name, describeXml(new File(xmlDir, xmlName)), describeNode(xmlNode));
+    }
+  }
+
+  /**
+   * 校验容器格式和CompiledFile头部
+   *
+   * @return 条目中的XmlNode
+   */
+  private byte[] readContainer(byte[] flat, String name) {
+    ByteBuffer buffer = ByteBuffer.wrap(flat).order(ByteOrder.LITTLE_ENDIAN);
+    assertEquals(0x54504141, buffer.getInt());
+    assertEquals(1, buffer.getInt());
+    assertEquals(1, buffer.getInt());
+    assertEquals(1, buffer.getInt());
+    assertEquals(flat.length - 24, buffer.getLong());
+    int headerSize = buffer.getInt();
+    long dataSize = buffer.getLong();
+
+    byte[] header = new byte[headerSize];
+    buffer.get(header);
+    buffer.position(buffer.position() + padding(headerSize));
+    byte[] data = new byte[(int) dataSize];
+    buffer.get(data);
+    assertEquals(padding(data.length), buffer.remaining());
+
+    ProtoReader compiledFile = new ProtoReader(header);
+    assertEquals("drawable/" + name, compiledFile.string(1));
+    assertEquals(0, compiledFile.bytes(2).length);
+    assertEquals(3, compiledFile.varint(3));
+    assertEquals(new File(xmlDir, name + DrawableGenerate.FILE_SUFFIX).getPath(),
+        compiledFile.string(4));
+    return data;
+  }
+
+  private static int padding(int size) {
+    return (4 - size % 4) % 4;
+  }
+
+  /**
+   * XmlNode按element = 1、text = 2解码，描述格式与{@link #describeElement}相同
+   */
+  private static String describeNode(byte[] xmlNode) {
+    ProtoReader node = new ProtoReader(xmlNode);
+    if (node.has(2)) {
+      return "text(" + node.string(2) + ")";
+    }
+    //XmlElement: namespace_declaration = 1, namespace_uri = 2, name = 3, attribute = 4, child = 5
+    ProtoReader element = new ProtoReader(node.bytes(1));
+    List<String> namespaces = new ArrayList<>();
+    for (byte[] namespace : element.all(1)) {
+      ProtoReader reader = new ProtoReader(namespace);
+      namespaces.add(reader.string(1) + "=" + reader.string(2));
+    }
+    List<String> attributes = new ArrayList<>();
+    for (byte[] attribute : element.all(4)) {
+      ProtoReader reader = new ProtoReader(attribute);
+      attributes.add("{" + reader.string(1) + "}" + reader.string(2) + "=" + reader.string(3));
+    }
+    List<String> children = new ArrayList<>();
+    for (byte[] child : element.all(5)) {
+      children.add(describeNode(child));
+    }
+    return describe(element.string(2), element.string(3), namespaces, attributes, children);
+  }
+
+  private static String describeXml(File xmlFile) throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    return describeElement(factory.newDocumentBuilder().parse(xmlFile).getDocumentElement());
+  }
+
+  private static String describeElement(Element element) {
+    List<String> namespaces = new ArrayList<>();
+    List<String> attributes = new ArrayList<>();
+    NamedNodeMap map = element.getAttributes();
+    for (int i = 0; i < map.getLength(); i++) {
+      Node attribute = map.item(i);
+      if (XMLNS.equals(attribute.getNamespaceURI())) {
+        namespaces.add(attribute.getLocalName() + "=" + attribute.getNodeValue());
+      } else {
+        attributes.add("{" + nullToEmpty(attribute.getNamespaceURI()) + "}"
+            + attribute.getLocalName() + "=" + attribute.getNodeValue());
+      }
+    }
+    List<String> children = new ArrayList<>();
+    for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() == Node.ELEMENT_NODE) {
+        children.add(describeElement((Element) child));
+      } else if (child.getNodeType() == Node.TEXT_NODE
+          && !child.getNodeValue().trim().isEmpty()) {
+        children.add("text(" + child.getNodeValue() + ")");
+      }
+    }
+    return describe(nullToEmpty(element.getNamespaceURI()), element.getLocalName(), namespaces,
+        attributes, children);
+  }
+
+  /**
+   * 属性顺序不影响链接结果，排序后比较
+   */
+  private static String describe(String uri, String name, List<String> namespaces,
+      List<String> attributes, List<String> children) {
+    Collections.sort(attributes);
+    return "{" + uri + "}" + name + namespaces + attributes + children;
+  }
+
+  private static String nullToEmpty(String value) {
+    return value != null ? value : "";
+  }
+
+  /**
+   * 只解码varint和length-delimited字段，未出现的字段按proto3默认值处理
+   */
+  private static final class ProtoReader {
+
+    private final List<Integer> fields = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+
+    ProtoReader(byte[] bytes) {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      while (buffer.hasRemaining()) {
+        long key = readVarint(buffer);
+        int wireType = (int) (key & 0x7);
+        if (wireType == 0) {
+          values.add(readVarint(buffer));
+        } else if (wireType == 2) {
+          byte[] value = new byte[(int) readVarint(buffer)];
+          buffer.get(value);
+          values.add(value);
+        } else {
+          throw new AssertionError("不支持的wire type:" + wireType);
+        }
+        fields.add((int) (key >>> 3));
+      }
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+      long value = 0;
+      for (int shift = 0; ; shift += 7) {
+        byte b = buffer.get();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+    }
+
+    boolean has(int field) {
+      return fields.contains(field);
+    }
+
+    long varint(int field) {
+      int index = fields.indexOf(field);
+      return index >= 0 ? (Long) values.get(index) : 0;
+    }
+
+    byte[] bytes(int field) {
+      int index = fields.indexOf(field);
+      return index >= 0 ? (byte[]) values.get(index) : new byte[0];
+    }
+
+    String string(int field) {
+      return new String(bytes(field), FragmentTemplate.UTF_8);
+    }
+
+    List<byte[]> all(int field) {
+      List<byte[]> all = new ArrayList<>();
+      for (int i = 0; i < fields.size(); i++) {
+        if (fields.get(i) == field) {
+          all.add((byte[]) values.get(i));
+        }
+      }
+      return all;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.licola.drawable.generate;
+
+import com.licola.drawable.generate.DrawableGenerate.DrawableNode;
+import com.licola.drawable.generate.DrawableGenerate.OnExcludeCombination;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 测试用的朴素遍历：按层嵌套循环展开全部组合，作为叶子游标的对照
+ */
+final class BruteForceLeaves {
+
+  private BruteForceLeaves() {
+  }
+
+  /**
+   * @param sizes 各层片段数量，第0层为根节点
+   * @return 各层片段，名称为"l层_下标"，内容为"<l层 i=下标/>"；名称为null的片段不参与文件名
+   */
+  static List<List<DrawableNode>> levels(int... sizes) {
+    List<List<DrawableNode>> levels = new ArrayList<>(sizes.length);
+    for (int depth = 0; depth < sizes.length; depth++) {
+      List<DrawableNode> level = new ArrayList<>(sizes[depth]);
+      for (int i = 0; i < sizes[depth]; i++) {
+        String name = depth == sizes.length - 1 && sizes[depth] == 1 ? null : "l" + depth + "_" + i;
+        level.add(new DrawableNode(name,
+            ("<l" + depth + " i=" + i + "/>").getBytes(FragmentTemplate.UTF_8)));
+      }
+      levels.add(level);
+    }
+    return levels;
+  }
+
+  /**
+   * 嵌套循环展开全部组合，最后一层变化最快；每选定一层就判断该层的排除条件
+   *
+   * @param constraints 按层的排除条件，可以为null
+   * @return 保留的组合，每个元素为[序号, 各层下标...]
+   */
+  static List<long[]> expand(List<List<DrawableNode>> levels,
+      List<List<OnExcludeCombination>> constraints) {
+    List<long[]> leaves = new ArrayList<>();
+    expand(levels, constraints, 0, 0, new int[levels.size()], new String[levels.size()], leaves);
+    return leaves;
+  }
+
+  private static void expand(List<List<DrawableNode>> levels,
+      List<List<OnExcludeCombination>> constraints, int depth, long ordinal, int[] indexes,
+      String[] names, List<long[]> leaves) {
+    if (depth == levels.size()) {
+      long[] leaf = new long[indexes.length + 1];
+      leaf[0] = ordinal;
+      for (int i = 0; i < indexes.length; i++) {
+        leaf[i + 1] = indexes[i];
+      }
+      leaves.add(leaf);
+      return;
+    }
+    List<DrawableNode> level = levels.get(depth);
+    for (int i = 0; i < level.size(); i++) {
+      indexes[depth] = i;
+      names[depth] = level.get(i).name;
+      if (excluded(constraints, depth, names, indexes)) {
+        continue;
+      }
+      expand(levels, constraints, depth + 1, ordinal * level.size() + i, indexes, names, leaves);
+    }
+  }
+
+  private static boolean excluded(List<List<OnExcludeCombination>> constraints, int depth,
+      String[] names, int[] indexes) {
+    if (constraints == null || depth >= constraints.size() || constraints.get(depth) == null) {
+      return false;
+    }
+    for (OnExcludeCombination constraint : constraints.get(depth)) {
+      if (constraint.onExclude(Arrays.copyOf(names, names.length),
+          Arrays.copyOf(indexes, indexes.length), depth)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param leaf {@link #expand}返回的组合
+   * @return 各层名称以下划线连接的文件名
+   */
+  static String name(List<List<DrawableNode>> levels, long[] leaf) {
+    StringBuilder name = new StringBuilder();
+    for (int depth = 0; depth < levels.size(); depth++) {
+      String levelName = levels.get(depth).get((int) leaf[depth + 1]).name;
+      if (levelName != null && !levelName.isEmpty()) {
+        if (name.length() != 0) {
+          name.append('_');
+        }
+        name.append(levelName);
+      }
+    }
+    return name.toString();
+  }
+
+  /**
+   * @param leaf {@link #expand}返回的组合
+   * @return xml头加各层片段以换行连接的完整内容
+   */
+  static byte[] content(List<List<DrawableNode>> levels, long[] leaf) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(DrawableGenerate.HEAD, 0, DrawableGenerate.HEAD.length);
+    for (int depth = 0; depth < levels.size(); depth++) {
+      if (depth != 0) {
+        out.write('\n');
+      }
+      byte[] content = levels.get(depth).get((int) leaf[depth + 1]).content;
+      out.write(content, 0, content.length);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,89 @@
+package com.licola.drawable.generate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.licola.drawable.generate.DrawableGenerate.Builder;
+import com.licola.drawable.generate.DrawableGenerate.OnProcessResources;
+import java.io.File;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 组合Builder只接受引用其他Builder的层，shape Builder只接受shape的子节点
+ */
+public class CompositeBuilderTest {
+
+  private File dir;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = TestDirs.create("composite");
+  }
+
+  @After
+  public void tearDown() {
+    TestDirs.delete(dir);
+  }
+
+  private Builder newNormal() {
+    return DrawableGenerate.newBuilder(dir, true, "rectangle", "btn_normal")
+        .addSolid(new String[]{"orange", "white"});
+  }
+
+  @Test
+  public void selector_rejectsAddSolid() {
+    Builder selector = DrawableGenerate.newSelector(dir, true, "button").addDefault(newNormal());
+    try {
+      selector.addSolid(new String[]{"orange"});
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    //被拒绝的层没有加入，仍然可以正常生成
+    assertEquals(2, selector.leafCount());
+    assertTrue(selector.build().isSuccess());
+    assertEquals(2, TestDirs.drawables(dir).size());
+  }
+
+  @Test
+  public void layerList_rejectsShapeChildren() {
+    Builder layerList = DrawableGenerate.newLayerList(dir, true, "card");
+    try {
+      layerList.addStroke(new String[]{"x1dp"}, new String[]{"gray"});
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    try {
+      layerList.addCorners(new String[]{"x1dp"});
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    try {
+      layerList.addNode(new OnProcessResources[]{new OnProcessResources() {
+        @Override
+        public String onProcessName() {
+          return "padding";
+        }
+
+        @Override
+        public String onProcessContent() {
+          return "\t<padding android:left=\"@dimen/x1dp\" />\n";
+        }
+      }});
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  @Test
+  public void shape_rejectsCompositeLevels() {
+    try {
+      newNormal().addState("state_pressed", newNormal());
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+}
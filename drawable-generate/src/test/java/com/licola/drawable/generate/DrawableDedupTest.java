@@ -0,0 +1,97 @@
+package com.licola.drawable.generate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.licola.drawable.generate.DrawableGenerate.Builder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 跨Builder去重：内容相同的叶子只生成第一个，其余名称写入别名values文件
+ */
+public class DrawableDedupTest {
+
+  private File dir;
+  private File aliasFile;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = TestDirs.create("dedup");
+    aliasFile = new File(TestDirs.create("values"), "drawable_aliases.xml");
+  }
+
+  @After
+  public void tearDown() {
+    TestDirs.delete(dir);
+    TestDirs.delete(aliasFile.getParentFile());
+  }
+
+  private Builder newBuilder(String alias, String... colors) {
+    return DrawableGenerate.newBuilder(dir, true, "rectangle", alias)
+        .addCorners(new String[]{"x2dp"})
+        .addSolid(colors);
+  }
+
+  @Test
+  public void identicalLeaves_areWrittenOnceAndAliased() throws IOException {
+    List<GenerationResult> results = new DrawableBatch(2)
+        .add(newBuilder("button", "orange", "white"))
+        .add(newBuilder("card", "white", "gray"))
+        .dedup(aliasFile)
+        .run();
+
+    assertTrue(results.get(0).isSuccess());
+    assertTrue(results.get(1).isSuccess());
+    assertEquals(2, results.get(0).getWritten());
+    assertEquals(1, results.get(1).getWritten());
+    assertEquals(1, results.get(1).getAliased());
+
+    Map<String, byte[]> files = TestDirs.drawables(dir);
+    assertEquals(3, files.size());
+    assertTrue(files.containsKey("button_corners_x2dp_solid_white.xml"));
+    assertFalse(files.containsKey("card_corners_x2dp_solid_white.xml"));
+    assertTrue(files.containsKey("card_corners_x2dp_solid_gray.xml"));
+
+    String aliases = new String(Files.readAllBytes(aliasFile.toPath()), FragmentTemplate.UTF_8);
+    assertEquals("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+        + "<resources>\n"
+        + "  <item name=\"card_corners_x2dp_solid_white\" type=\"drawable\">"
+        + "@drawable/button_corners_x2dp_solid_white</item>\n"
+        + "</resources>\n", aliases);
+  }
+
+  @Test
+  public void firstBuilderWins_inBatchOrder() {
+    new DrawableBatch(1)
+        .add(newBuilder("card", "white"))
+        .add(newBuilder("button", "white"))
+        .dedup(aliasFile)
+        .run();
+
+    Map<String, byte[]> files = TestDirs.drawables(dir);
+    assertEquals(1, files.size());
+    assertTrue(files.containsKey("card_corners_x2dp_solid_white.xml"));
+  }
+
+  @Test
+  public void differentShapes_areNotAliased() {
+    List<GenerationResult> results = new DrawableBatch(1)
+        .add(newBuilder("button", "white"))
+        .add(DrawableGenerate.newBuilder(dir, true, "oval", "dot")
+            .addCorners(new String[]{"x2dp"})
+            .addSolid(new String[]{"white"}))
+        .dedup(aliasFile)
+        .run();
+
+    assertEquals(0, results.get(1).getAliased());
+    assertEquals(2, TestDirs.drawables(dir).size());
+  }
+}
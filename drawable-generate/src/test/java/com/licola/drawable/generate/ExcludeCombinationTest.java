@@ -0,0 +1,126 @@
+package com.licola.drawable.generate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.licola.drawable.generate.DrawableGenerate.DrawableNode;
+import com.licola.drawable.generate.DrawableGenerate.LeafCursor;
+import com.licola.drawable.generate.DrawableGenerate.OnExcludeCombination;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 排除条件：按步长跳过被排除前缀的结果与嵌套循环逐个判断相同
+ */
+public class ExcludeCombinationTest {
+
+  private final List<List<DrawableNode>> levels = BruteForceLeaves.levels(1, 3, 4, 2, 3, 1);
+  private final List<List<OnExcludeCombination>> constraints = new ArrayList<>();
+
+  private File dir;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = TestDirs.create("exclude");
+
+    constraints.add(null);
+    //第1层排除整个前缀
+    constraints.add(Collections.<OnExcludeCombination>singletonList(new OnExcludeCombination() {
+      @Override
+      public boolean onExclude(String[] names, int[] indexes, int depth) {
+        return indexes[depth] == 1;
+      }
+    }));
+    //第2层按与上一层的下标关系排除
+    constraints.add(Collections.<OnExcludeCombination>singletonList(new OnExcludeCombination() {
+      @Override
+      public boolean onExclude(String[] names, int[] indexes, int depth) {
+        return indexes[depth] % 3 == indexes[depth - 1];
+      }
+    }));
+    constraints.add(null);
+    //第4层按名称排除，同一层可以有多个条件
+    constraints.add(Arrays.<OnExcludeCombination>asList(new OnExcludeCombination() {
+      @Override
+      public boolean onExclude(String[] names, int[] indexes, int depth) {
+        return names[depth].equals("l4_0") && names[depth - 1].equals("l3_1");
+      }
+    }, new OnExcludeCombination() {
+      @Override
+      public boolean onExclude(String[] names, int[] indexes, int depth) {
+        return indexes[2] == 3 && indexes[depth] == 2;
+      }
+    }));
+  }
+
+  @After
+  public void tearDown() {
+    TestDirs.delete(dir);
+  }
+
+  @Test
+  public void next_matchesNestedLoopsWithExclusions() {
+    List<long[]> expected = BruteForceLeaves.expand(levels, constraints);
+    assertTrue(expected.size() > 0);
+    assertTrue(expected.size() < LeafCursor.leafCount(levels));
+
+    LeafCursor cursor = new LeafCursor(levels, constraints, 0, LeafCursor.leafCount(levels));
+    for (long[] leaf : expected) {
+      assertTrue(cursor.next());
+      LeafCursorTest.assertLeaf(levels, leaf, cursor);
+    }
+    assertFalse(cursor.next());
+    assertEquals(LeafCursor.leafCount(levels) - expected.size(), cursor.pruned());
+  }
+
+  @Test
+  public void range_skipsExcludedPrefixesInsideTheRange() {
+    List<long[]> expected = BruteForceLeaves.expand(levels, constraints);
+    long leafCount = LeafCursor.leafCount(levels);
+    for (long from = 0; from <= leafCount; from += 5) {
+      for (long to = from; to <= leafCount; to += 7) {
+        LeafCursor cursor = new LeafCursor(levels, constraints, from, to);
+        int kept = 0;
+        for (long[] leaf : expected) {
+          if (leaf[0] >= from && leaf[0] < to) {
+            assertTrue("[" + from + ", " + to + ")", cursor.next());
+            LeafCursorTest.assertLeaf(levels, leaf, cursor);
+            kept++;
+          }
+        }
+        assertFalse("[" + from + ", " + to + ")", cursor.next());
+        assertEquals("[" + from + ", " + to + ")", to - from - kept, cursor.pruned());
+      }
+    }
+  }
+
+  @Test
+  public void build_excludesByValueIndexNotNameSuffix() {
+    final String[] colors = {"black_A87", "orange", "deep_orange"};
+    GenerationResult result = DrawableGenerate.newBuilder(dir, true, "rectangle")
+        .addSolid(colors)
+        .addStroke(new String[]{"x1dp", "x2dp"}, colors)
+        .exclude(new OnExcludeCombination() {
+          @Override
+          public boolean onExclude(String[] names, int[] indexes, int depth) {
+            return indexes[depth] % colors.length == indexes[depth - 1];
+          }
+        })
+        .build();
+
+    assertTrue(result.isSuccess());
+    assertEquals(12, result.getWritten());
+    assertEquals(6, result.getPruned());
+    assertTrue(new File(dir, "rectangle_solid_orange_stroke_x1dp_deep_orange.xml").exists());
+    assertFalse(new File(dir, "rectangle_solid_orange_stroke_x1dp_orange.xml").exists());
+    assertFalse(new File(dir, "rectangle_solid_deep_orange_stroke_x2dp_deep_orange.xml").exists());
+  }
+}
@@ -0,0 +1,176 @@
+package com.licola.drawable.generate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.licola.drawable.generate.DrawableGenerate.Builder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 生成清单：再次生成时跳过未变化的文件，删除本次不再生成的文件，批量生成时清理已移除的Builder分组
+ */
+public class GenerationManifestTest {
+
+  private File dir;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = TestDirs.create("manifest");
+  }
+
+  @After
+  public void tearDown() {
+    TestDirs.delete(dir);
+  }
+
+  private Builder newLine(String... colors) {
+    return DrawableGenerate.newBuilder(dir, true, "rectangle", "line")
+        .addSize(new String[]{"x1dp", "x2dp"})
+        .addSolid(colors)
+        .skipUnchanged(true)
+        .cleanStale(true);
+  }
+
+  private Builder newCircle(String... colors) {
+    return DrawableGenerate.newBuilder(dir, true, "oval", "circle")
+        .addSolid(colors)
+        .skipUnchanged(true)
+        .cleanStale(true);
+  }
+
+  @Test
+  public void secondRun_skipsUnchangedAndRewritesModified() throws IOException {
+    GenerationResult first = newLine("orange", "white").build();
+    assertTrue(first.isSuccess());
+    assertEquals(4, first.getWritten());
+    assertTrue(new File(dir, GenerationManifest.FILE_NAME).exists());
+
+    GenerationResult second = newLine("orange", "white").build();
+    assertTrue(second.isSuccess());
+    assertEquals(0, second.getWritten());
+    assertEquals(4, second.getUnchanged());
+    assertEquals(0, second.getDeleted());
+
+    File modified = new File(dir, "line_size_x1dp_solid_orange.xml");
+    Files.write(modified.toPath(), "changed".getBytes(FragmentTemplate.UTF_8));
+    assertTrue(new File(dir, "line_size_x2dp_solid_white.xml").delete());
+    GenerationResult third = newLine("orange", "white").build();
+    assertEquals(2, third.getWritten());
+    assertEquals(2, third.getUnchanged());
+    assertEquals(4, TestDirs.drawables(dir).size());
+  }
+
+  @Test
+  public void fixedManifestKey_deletesFilesOfRemovedValues() {
+    assertTrue(newLine("orange", "white", "gray").manifestKey("line").build().isSuccess());
+    Map<String, byte[]> before = TestDirs.drawables(dir);
+    assertEquals(6, before.size());
+
+    GenerationResult result = newLine("orange", "gray").manifestKey("line").build();
+
+    assertTrue(result.isSuccess());
+    assertEquals(2, result.getDeleted());
+    assertEquals(4, result.getUnchanged());
+    Map<String, byte[]> after = TestDirs.drawables(dir);
+    assertEquals(4, after.size());
+    assertFalse(after.containsKey("line_size_x1dp_solid_white.xml"));
+    assertTrue(after.containsKey("line_size_x2dp_solid_gray.xml"));
+  }
+
+  @Test
+  public void defaultManifestKey_deletesFilesOfRemovedValues() {
+    assertTrue(newLine("orange", "white", "gray").build().isSuccess());
+    assertEquals(6, TestDirs.drawables(dir).size());
+
+    GenerationResult result = newLine("orange", "gray").build();
+
+    assertTrue(result.isSuccess());
+    assertEquals(2, result.getDeleted());
+    Map<String, byte[]> after = TestDirs.drawables(dir);
+    assertEquals(4, after.size());
+    assertFalse(after.containsKey("line_size_x1dp_solid_white.xml"));
+    assertFalse(after.containsKey("line_size_x2dp_solid_white.xml"));
+  }
+
+  @Test
+  public void defaultManifestKey_ignoresValues() {
+    assertEquals(newLine("orange", "white").manifestKey(), newLine("orange").manifestKey());
+    assertFalse(newLine("orange", "white").manifestKey()
+        .equals(newCircle("orange", "white").manifestKey()));
+    assertFalse(newLine("orange").manifestKey()
+        .equals(DrawableGenerate.newBuilder(dir, true, "rectangle", "line")
+            .addSolid(new String[]{"orange"})
+            .addSize(new String[]{"x1dp"})
+            .manifestKey()));
+  }
+
+  @Test
+  public void batch_cleansGroupsOfRemovedBuilders() {
+    List<GenerationResult> first = new DrawableBatch(2)
+        .add(newLine("orange", "white"))
+        .add(newCircle("gray"))
+        .cleanStaleOwners(true)
+        .run();
+    assertEquals(2, first.size());
+    assertEquals(5, TestDirs.drawables(dir).size());
+
+    //line去掉white由line自身删除，circle整个移除后由批量清理删除
+    List<GenerationResult> second = new DrawableBatch(2)
+        .add(newLine("orange"))
+        .cleanStaleOwners(true)
+        .run();
+
+    assertEquals(2, second.size());
+    assertTrue(second.get(0).isSuccess());
+    assertTrue(second.get(1).isSuccess());
+    assertEquals(2, second.get(0).getDeleted());
+    assertEquals(1, second.get(1).getDeleted());
+    Map<String, byte[]> after = TestDirs.drawables(dir);
+    assertEquals(2, after.size());
+    assertTrue(after.containsKey("line_size_x1dp_solid_orange.xml"));
+    assertTrue(after.containsKey("line_size_x2dp_solid_orange.xml"));
+  }
+
+  @Test
+  public void batch_rejectsDuplicateManifestKeysWithoutWriting() {
+    List<GenerationResult> results = new DrawableBatch(1)
+        .add(newLine("orange"))
+        .add(newLine("orange"))
+        .run();
+
+    assertFalse(results.get(0).isSuccess());
+    assertFalse(results.get(1).isSuccess());
+    assertTrue(TestDirs.drawables(dir).isEmpty());
+
+    results = new DrawableBatch(1)
+        .add(newLine("orange"))
+        .add(newLine("orange").manifestKey("second"))
+        .run();
+    assertTrue(results.get(0).isSuccess());
+    assertTrue(results.get(1).isSuccess());
+  }
+
+  @Test
+  public void buildRange_neitherCommitsNorDeletes() throws IOException {
+    assertTrue(newLine("orange", "white").manifestKey("line").build().isSuccess());
+    byte[] manifest = Files.readAllBytes(new File(dir, GenerationManifest.FILE_NAME).toPath());
+
+    Builder shard = newLine("orange").manifestKey("line");
+    GenerationResult result = shard.buildRange(0, 1);
+
+    assertTrue(result.isSuccess());
+    assertEquals(0, result.getDeleted());
+    assertEquals(4, TestDirs.drawables(dir).size());
+    assertArrayEquals(manifest,
+        Files.readAllBytes(new File(dir, GenerationManifest.FILE_NAME).toPath()));
+  }
+}
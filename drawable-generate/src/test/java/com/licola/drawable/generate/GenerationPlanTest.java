@@ -0,0 +1,145 @@
+package com.licola.drawable.generate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.licola.drawable.generate.DrawableGenerate.Builder;
+import com.licola.drawable.generate.DrawableGenerate.OnExcludeCombination;
+import java.io.File;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 规划：不生成文件得到的叶子数量和字节数与实际生成的文件一致，超过上限或超出long范围时生成失败
+ */
+public class GenerationPlanTest {
+
+  private File dir;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = TestDirs.create("plan");
+  }
+
+  @After
+  public void tearDown() {
+    TestDirs.delete(dir);
+  }
+
+  private Builder newBuilder() {
+    return DrawableGenerate.newBuilder(dir, true, "rectangle")
+        .addCorners(new String[]{"x1dp", "x10dp"})
+        .addSolid(new String[]{"black_A87", "orange", "white"})
+        .addStroke(new String[]{"x1dp"}, new String[]{"black_A87", "orange"});
+  }
+
+  @Test
+  public void plan_matchesWrittenFiles() {
+    Builder builder = newBuilder();
+    GenerationPlan plan = builder.plan();
+    GenerationResult result = builder.build();
+
+    assertTrue(result.isSuccess());
+    assertTrue(plan.isExact());
+    assertEquals(12, plan.getCombinations());
+    assertEquals(result.getWritten(), plan.getLeaves());
+    assertEquals(totalBytes(), plan.getBytes());
+    assertEquals(result.getBytesWritten(), plan.getBytes());
+    //生成后Builder已添加结束节点，规划结果不变
+    assertEquals(plan.getBytes(), builder.plan().getBytes());
+    assertEquals(plan.getNodes(), builder.plan().getNodes());
+  }
+
+  @Test
+  public void plan_withExclusionsMatchesWrittenFiles() {
+    Builder builder = newBuilder().exclude(new OnExcludeCombination() {
+      @Override
+      public boolean onExclude(String[] names, int[] indexes, int depth) {
+        return indexes[depth] == indexes[depth - 1];
+      }
+    });
+    GenerationPlan plan = builder.plan();
+    GenerationResult result = builder.build();
+
+    assertTrue(result.isSuccess());
+    assertTrue(plan.isExact());
+    assertEquals(12, plan.getCombinations());
+    assertEquals(8, plan.getLeaves());
+    assertEquals(result.getWritten(), plan.getLeaves());
+    assertEquals(totalBytes(), plan.getBytes());
+  }
+
+  @Test
+  public void maxLeaves_failsBeforeWriting() {
+    GenerationResult result = newBuilder().maxLeaves(11).build();
+
+    assertFalse(result.isSuccess());
+    assertEquals(0, totalBytes());
+    assertTrue(newBuilder().maxLeaves(12).build().isSuccess());
+  }
+
+  @Test
+  public void overflow_isOverAnyLimit() {
+    String[] values = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+    Builder builder = DrawableGenerate.newBuilder(dir, true, "rectangle");
+    for (int i = 0; i < 20; i++) {
+      builder.addSolid(values);
+    }
+    GenerationPlan plan = builder.plan();
+
+    assertEquals(Long.MAX_VALUE, builder.leafCount());
+    assertEquals(Long.MAX_VALUE, plan.getCombinations());
+    assertEquals(Long.MAX_VALUE, plan.getBytes());
+    assertFalse(plan.isExact());
+    assertFalse(builder.build().isSuccess());
+    assertFalse(builder.maxLeaves(Long.MAX_VALUE - 1).build().isSuccess());
+  }
+
+  @Test
+  public void plan_bytesSaturateInsteadOfWrapping() {
+    String[] values = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+    Builder builder = DrawableGenerate.newBuilder(dir, true, "rectangle");
+    for (int i = 0; i < 18; i++) {
+      builder.addSolid(values);
+    }
+    GenerationPlan plan = builder.plan();
+
+    assertEquals(1000000000000000000L, plan.getLeaves());
+    assertEquals(Long.MAX_VALUE, plan.getBytes());
+  }
+
+  @Test(timeout = 10000)
+  public void plan_withExclusionsOverMaxLeavesReportsUpperBound() {
+    String[] values = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+    Builder builder = DrawableGenerate.newBuilder(dir, true, "rectangle");
+    for (int i = 0; i < 10; i++) {
+      builder.addSolid(values);
+    }
+    long unconstrainedBytes = builder.plan().getBytes();
+    builder.exclude(new OnExcludeCombination() {
+      @Override
+      public boolean onExclude(String[] names, int[] indexes, int depth) {
+        return indexes[depth] == 0;
+      }
+    }).maxLeaves(1000);
+    GenerationPlan plan = builder.plan();
+
+    assertFalse(plan.isExact());
+    assertEquals(10000000000L, plan.getCombinations());
+    assertEquals(10000000000L, plan.getLeaves());
+    assertEquals(unconstrainedBytes, plan.getBytes());
+    assertFalse(builder.build().isSuccess());
+    assertEquals(0, totalBytes());
+  }
+
+  private long totalBytes() {
+    long bytes = 0;
+    for (byte[] content : TestDirs.drawables(dir).values()) {
+      bytes += content.length;
+    }
+    return bytes;
+  }
+}
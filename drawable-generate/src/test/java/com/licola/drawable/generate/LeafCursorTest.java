@@ -0,0 +1,77 @@
+package com.licola.drawable.generate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.licola.drawable.generate.DrawableGenerate.DrawableNode;
+import com.licola.drawable.generate.DrawableGenerate.LeafCursor;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * 叶子游标与嵌套循环展开的对照：顺序、名称、长度、哈希、内容以及从任意序号开始的定位
+ */
+public class LeafCursorTest {
+
+  private final List<List<DrawableNode>> levels = BruteForceLeaves.levels(1, 3, 2, 4, 1);
+
+  @Test
+  public void counts_areProductAndSumOfLevelSizes() {
+    assertEquals(24, LeafCursor.leafCount(levels));
+    assertEquals(11, LeafCursor.nodeCount(levels));
+    assertEquals(0, LeafCursor.leafCount(BruteForceLeaves.levels()));
+  }
+
+  @Test
+  public void next_matchesNestedLoops() {
+    List<long[]> expected = BruteForceLeaves.expand(levels, null);
+    LeafCursor cursor = new LeafCursor(levels);
+    for (long[] leaf : expected) {
+      assertTrue(cursor.next());
+      assertLeaf(levels, leaf, cursor);
+    }
+    assertFalse(cursor.next());
+    assertFalse(cursor.next());
+    assertEquals(0, cursor.pruned());
+  }
+
+  @Test
+  public void range_seeksByMixedRadixFromAnyOrdinal() {
+    List<long[]> expected = BruteForceLeaves.expand(levels, null);
+    for (int from = 0; from <= expected.size(); from++) {
+      for (int to = from; to <= expected.size(); to++) {
+        LeafCursor cursor = new LeafCursor(levels, from, to);
+        for (long[] leaf : expected.subList(from, to)) {
+          assertTrue("[" + from + ", " + to + ")", cursor.next());
+          assertLeaf(levels, leaf, cursor);
+        }
+        assertFalse("[" + from + ", " + to + ")", cursor.next());
+      }
+    }
+  }
+
+  @Test
+  public void emptyLevel_hasNoLeaves() {
+    List<List<DrawableNode>> empty = BruteForceLeaves.levels(1, 3, 0, 2);
+    assertEquals(0, LeafCursor.leafCount(empty));
+    assertFalse(new LeafCursor(empty).next());
+  }
+
+  static void assertLeaf(List<List<DrawableNode>> levels, long[] leaf, LeafCursor cursor) {
+    assertEquals(leaf[0], cursor.ordinal());
+    for (int depth = 0; depth < leaf.length - 1; depth++) {
+      assertEquals(leaf[depth + 1], cursor.index(depth));
+    }
+    byte[] content = BruteForceLeaves.content(levels, leaf);
+    assertEquals(BruteForceLeaves.name(levels, leaf), cursor.name());
+    assertEquals(content.length, cursor.length());
+    assertEquals(ContentHash.update(ContentHash.INITIAL, content), cursor.hash());
+
+    LeafBuffer buffer = new LeafBuffer();
+    cursor.render(buffer);
+    assertArrayEquals(content, Arrays.copyOf(buffer.array(), buffer.size()));
+  }
+}
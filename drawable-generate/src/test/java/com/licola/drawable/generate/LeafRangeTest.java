@@ -0,0 +1,148 @@
+package com.licola.drawable.generate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.licola.drawable.generate.DrawableGenerate.Builder;
+import com.licola.drawable.generate.DrawableGenerate.OnExcludeCombination;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 叶子序号：leafName与逐个展开的顺序一致，按区间、按分片生成的并集与一次全部生成相同
+ */
+public class LeafRangeTest {
+
+  private File fullDir;
+  private File shardDir;
+
+  @Before
+  public void setUp() throws IOException {
+    fullDir = TestDirs.create("full");
+    shardDir = TestDirs.create("shard");
+  }
+
+  @After
+  public void tearDown() {
+    TestDirs.delete(fullDir);
+    TestDirs.delete(shardDir);
+  }
+
+  private static Builder newBuilder(File dir) {
+    return DrawableGenerate.newBuilder(dir, true, "rectangle")
+        .addCorners(new String[]{"x1dp", "x2dp", "x4dp"})
+        .addSolid(new String[]{"black_A87", "orange", "white", "gray"})
+        .addStroke(new String[]{"x1dp", "x2dp"}, new String[]{"black_A87", "orange"})
+        .exclude(new OnExcludeCombination() {
+          @Override
+          public boolean onExclude(String[] names, int[] indexes, int depth) {
+            return indexes[depth] % 2 == indexes[depth - 1];
+          }
+        });
+  }
+
+  @Test
+  public void leafName_matchesGeneratedFilesAndSkipsExcluded() {
+    Builder builder = newBuilder(fullDir);
+    GenerationResult result = builder.build();
+    assertTrue(result.isSuccess());
+
+    List<String> names = new ArrayList<>();
+    for (long ordinal = 0; ordinal < builder.leafCount(); ordinal++) {
+      String name = builder.leafName(ordinal);
+      if (name != null) {
+        names.add(name + DrawableGenerate.FILE_SUFFIX);
+      }
+    }
+    assertEquals(48, builder.leafCount());
+    assertEquals(result.getWritten(), names.size());
+    assertEquals(builder.leafCount() - names.size(), result.getPruned());
+    assertEquals(new ArrayList<>(TestDirs.drawables(fullDir).keySet()), sorted(names));
+    assertNull(builder.leafName(0));
+  }
+
+  @Test
+  public void buildRange_unionOfShardsEqualsFullBuild() {
+    Map<String, byte[]> full = generateFull();
+    for (int count = 1; count <= 7; count++) {
+      TestDirs.delete(shardDir);
+      assertTrue(shardDir.mkdirs());
+      Builder builder = newBuilder(shardDir);
+      long leafCount = builder.leafCount();
+      int written = 0;
+      long pruned = 0;
+      for (int index = 0; index < count; index++) {
+        GenerationResult result = builder.buildRange(
+            DrawableGenerate.shardStart(leafCount, index, count),
+            DrawableGenerate.shardStart(leafCount, index + 1, count));
+        assertTrue(result.isSuccess());
+        written += result.getWritten();
+        pruned += result.getPruned();
+      }
+      assertEquals("分片数量" + count, full.size(), written);
+      assertEquals("分片数量" + count, leafCount - full.size(), pruned);
+      assertSameFiles(full, TestDirs.drawables(shardDir));
+    }
+  }
+
+  @Test
+  public void batchShards_unionEqualsFullBuild() {
+    Map<String, byte[]> full = generateFull();
+    int count = 3;
+    for (int index = 0; index < count; index++) {
+      List<GenerationResult> results = new DrawableBatch(2)
+          .add(newBuilder(shardDir))
+          .shard(index, count)
+          .run();
+      assertTrue(results.get(0).isSuccess());
+    }
+    assertSameFiles(full, TestDirs.drawables(shardDir));
+  }
+
+  @Test
+  public void buildRange_outsideLeafCountFails() {
+    Builder builder = newBuilder(shardDir);
+    try {
+      builder.buildRange(0, builder.leafCount() + 1);
+      fail("区间超出叶子总数时应当失败");
+    } catch (IllegalArgumentException expected) {
+      //区间在生成前检查
+    }
+  }
+
+  @Test
+  public void buildRange_emptyRangeWritesNothing() {
+    GenerationResult result = newBuilder(shardDir).buildRange(5, 5);
+    assertTrue(result.isSuccess());
+    assertEquals(0, result.getWritten());
+    assertTrue(TestDirs.drawables(shardDir).isEmpty());
+  }
+
+  private Map<String, byte[]> generateFull() {
+    assertTrue(newBuilder(fullDir).build().isSuccess());
+    return TestDirs.drawables(fullDir);
+  }
+
+  private static void assertSameFiles(Map<String, byte[]> expected, Map<String, byte[]> actual) {
+    assertEquals(expected.keySet(), actual.keySet());
+    for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+      assertArrayEquals(entry.getKey(), entry.getValue(), actual.get(entry.getKey()));
+    }
+  }
+
+  private static List<String> sorted(List<String> names) {
+    List<String> sorted = new ArrayList<>(names);
+    Collections.sort(sorted);
+    return sorted;
+  }
+}
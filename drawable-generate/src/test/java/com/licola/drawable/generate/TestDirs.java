@@ -0,0 +1,51 @@
+package com.licola.drawable.generate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 测试用的临时输出目录
+ */
+final class TestDirs {
+
+  private TestDirs() {
+  }
+
+  static File create(String prefix) throws IOException {
+    return Files.createTempDirectory(prefix).toFile();
+  }
+
+  static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  /**
+   * @return 目录中的drawable文件，按文件名排序
+   */
+  static Map<String, byte[]> drawables(File dir) {
+    Map<String, byte[]> files = new TreeMap<>();
+    File[] children = dir.listFiles();
+    if (children == null) {
+      return files;
+    }
+    try {
+      for (File child : children) {
+        if (child.getName().endsWith(DrawableGenerate.FILE_SUFFIX)) {
+          files.put(child.getName(), Files.readAllBytes(child.toPath()));
+        }
+      }
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return files;
+  }
+}
@@ -0,0 +1,101 @@
+package com.licola.drawable.generate.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import com.licola.drawable.generate.runtime.GradientDrawableFactory.Spec;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * 运行时工厂：相同配置共享ConstantState，每次返回新的drawable，超过上限时淘汰最近最少使用的配置
+ */
+@RunWith(RobolectricTestRunner.class)
+public class GradientDrawableFactoryTest {
+
+  private GradientDrawableFactory factory;
+
+  @Before
+  public void setUp() {
+    factory = new GradientDrawableFactory(RuntimeEnvironment.application.getResources(), 2);
+  }
+
+  private Spec newSpec(int color) {
+    return factory.newSpec("rectangle").corners(8).solid(color).stroke(2, Color.GRAY);
+  }
+
+  @Test
+  public void hit_returnsNewDrawableSharingConstantState() {
+    Drawable first = factory.get(newSpec(Color.RED));
+    Drawable second = factory.get(newSpec(Color.RED));
+
+    assertEquals(1, factory.missCount());
+    assertEquals(1, factory.hitCount());
+    assertNotSame(first, second);
+    assertTrue(second instanceof GradientDrawable);
+    assertSame(first.getConstantState(), second.getConstantState());
+  }
+
+  @Test
+  public void differentSpecs_doNotShareState() {
+    Drawable red = factory.get(newSpec(Color.RED));
+    Drawable blue = factory.get(newSpec(Color.BLUE));
+
+    assertEquals(2, factory.missCount());
+    assertNotSame(red.getConstantState(), blue.getConstantState());
+  }
+
+  @Test
+  public void specChangedAfterGet_doesNotChangeCachedKey() {
+    Spec spec = newSpec(Color.RED);
+    Drawable red = factory.get(spec);
+    spec.solid(Color.BLUE);
+    Drawable blue = factory.get(spec);
+
+    assertEquals(2, factory.missCount());
+    assertSame(red.getConstantState(), factory.get(newSpec(Color.RED)).getConstantState());
+    assertNotSame(red.getConstantState(), blue.getConstantState());
+  }
+
+  @Test
+  public void leastRecentlyUsed_isEvictedOverMaxSize() {
+    Drawable red = factory.get(newSpec(Color.RED));
+    factory.get(newSpec(Color.BLUE));
+    //再次使用red，blue成为最近最少使用
+    factory.get(newSpec(Color.RED));
+    factory.get(newSpec(Color.GREEN));
+
+    assertSame(red.getConstantState(), factory.get(newSpec(Color.RED)).getConstantState());
+    int misses = factory.missCount();
+    factory.get(newSpec(Color.BLUE));
+    assertEquals(misses + 1, factory.missCount());
+  }
+
+  @Test
+  public void evictAll_rebuildsState() {
+    Drawable red = factory.get(newSpec(Color.RED));
+    factory.evictAll();
+    Drawable rebuilt = factory.get(newSpec(Color.RED));
+
+    assertEquals(2, factory.missCount());
+    assertNotSame(red.getConstantState(), rebuilt.getConstantState());
+  }
+
+  @Test
+  public void mutate_doesNotAffectCachedState() {
+    Drawable first = factory.get(newSpec(Color.RED));
+    GradientDrawable mutated = (GradientDrawable) factory.get(newSpec(Color.RED)).mutate();
+    mutated.setColor(Color.BLACK);
+
+    assertNotSame(first.getConstantState(), mutated.getConstantState());
+    assertSame(first.getConstantState(), factory.get(newSpec(Color.RED)).getConstantState());
+  }
+}